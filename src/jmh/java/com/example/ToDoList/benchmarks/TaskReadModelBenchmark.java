@@ -0,0 +1,83 @@
+package com.example.ToDoList.benchmarks;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskSummary;
+import com.example.ToDoList.services.TaskReadModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Страницы /taskList из модели чтения. Запускать с -prof gc (по умолчанию): gc.alloc.rate.norm
+// показывает, сколько байт стоит одна страница, и не должен расти вместе с rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TaskReadModelBenchmark {
+
+    private static final int LIMIT = 50;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private TaskReadModel model;
+    private TaskCursor createdCursor;
+    private TaskCursor priorityCursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Status[] statuses = Status.values();
+        Priority[] priorities = Priority.values();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        model = new TaskReadModel(null, true, Duration.ofMinutes(1));
+        for (int i = 0; i < rows; i++) {
+            ToDoList task = new ToDoList();
+            task.setId(new UUID(random.nextLong(), random.nextLong()));
+            task.setTitle("задача " + i);
+            task.setStatus(statuses[random.nextInt(statuses.length)]);
+            task.setPriority(priorities[random.nextInt(priorities.length)]);
+            task.setCreateDate(start.plusSeconds(random.nextInt(365 * 24 * 3600)));
+            task.setUpdateDate(task.getCreateDate());
+            model.onTaskEvent(TaskEvent.created(task));
+        }
+
+        // курсоры из середины выборки, чтобы страница начиналась внутри корзин
+        List<TaskSummary> created = model.page(null, null, TaskCursor.Mode.CREATED_DESC, null, rows / 2);
+        createdCursor = TaskCursor.of(TaskCursor.Mode.CREATED_DESC, created.get(created.size() - 1));
+        List<TaskSummary> byPriority = model.page(Status.Active, null, TaskCursor.Mode.PRIORITY_DESC, null, rows / 8);
+        priorityCursor = TaskCursor.of(TaskCursor.Mode.PRIORITY_DESC, byPriority.get(byPriority.size() - 1));
+    }
+
+    @Benchmark
+    public List<TaskSummary> firstPageAllTasks() {
+        return model.page(null, null, TaskCursor.Mode.CREATED_DESC, null, LIMIT);
+    }
+
+    @Benchmark
+    public List<TaskSummary> firstPageByStatusAndPriority() {
+        return model.page(Status.Active, Priority.High, TaskCursor.Mode.CREATED_ASC, null, LIMIT);
+    }
+
+    @Benchmark
+    public List<TaskSummary> middlePageAllTasks() {
+        return model.page(null, null, TaskCursor.Mode.CREATED_DESC, createdCursor, LIMIT);
+    }
+
+    @Benchmark
+    public List<TaskSummary> middlePageByPriority() {
+        return model.page(Status.Active, null, TaskCursor.Mode.PRIORITY_DESC, priorityCursor, LIMIT);
+    }
+}
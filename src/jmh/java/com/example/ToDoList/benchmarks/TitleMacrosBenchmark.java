@@ -0,0 +1,84 @@
+package com.example.ToDoList.benchmarks;
+
+import com.example.ToDoList.models.DeadlineAndPriorityCheck;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.TitleMacros;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleMacrosBenchmark {
+
+    // plain - без макросов, priority - только !1..!4, deadline - только !before, mixed - реальная смесь
+    @Param({"plain", "priority", "deadline", "mixed"})
+    public String titles;
+
+    private String[] sample;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] plain = {
+                "Купить молоко",
+                "Подготовить отчет по проекту",
+                "Позвонить в банк и уточнить условия вклада",
+                "Разобрать почту   за неделю"
+        };
+        String[] priority = {
+                "Купить молоко !3",
+                "!1 Починить прод",
+                "Подготовить отчет !2 по проекту",
+                "Обновить зависимости !4"
+        };
+        String[] deadline = {
+                "Сдать отчет !before 18.07.2152",
+                "Оплатить счета !before 01-02-2152",
+                "!before 31.12.2152 Подвести итоги года",
+                "Записаться к врачу !before 15.03.2152"
+        };
+        sample = switch (titles) {
+            case "plain" -> plain;
+            case "priority" -> priority;
+            case "deadline" -> deadline;
+            default -> new String[]{
+                    plain[0], priority[1], deadline[0], "Релиз !1   !before 20.10.2152",
+                    plain[2], priority[2], "Ретро   с командой !3 !before 05.05.2152", plain[3]
+            };
+        };
+    }
+
+    private String nextTitle() {
+        String title = sample[next];
+        next = next + 1 == sample.length ? 0 : next + 1;
+        return title;
+    }
+
+    @Benchmark
+    public Priority detectPriority() {
+        return DeadlineAndPriorityCheck.detectPriority(nextTitle());
+    }
+
+    @Benchmark
+    public LocalDateTime extractDeadline() {
+        return DeadlineAndPriorityCheck.extractDeadline(nextTitle());
+    }
+
+    @Benchmark
+    public String cleanTitle() {
+        return DeadlineAndPriorityCheck.cleanTitle(nextTitle());
+    }
+
+    @Benchmark
+    public TitleMacros parseAll() {
+        TitleMacros macros = TitleMacros.parse(nextTitle());
+        macros.deadline();
+        return macros;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ToDoList.benchmarks;
+
+import com.example.ToDoList.entity.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Вставка rows строк в пустую файловую таблицу H2 с первичным ключом UUID:
+// случайные UUID v4 (как было с GenerationType.UUID) против упорядоченных по времени UUID v7.
+// Каждая итерация - новая база во временном каталоге, замеряется одна полная загрузка.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class UuidInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"random", "v7"})
+    public String idKind;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("uuid-insert");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE todolist (id UUID PRIMARY KEY, title VARCHAR(255), create_date TIMESTAMP)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        boolean v7 = idKind.equals("v7");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO todolist (id, title, create_date) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setObject(1, v7 ? UuidV7.next() : UUID.randomUUID());
+                insert.setString(2, "задача " + i);
+                insert.setTimestamp(3, now);
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+}
@@ -1,28 +1,52 @@
 package com.example.ToDoList.controller;
 
+import com.example.ToDoList.entity.ArchivedTask;
 import com.example.ToDoList.entity.ToDoList;
 import com.example.ToDoList.models.*;
+import com.example.ToDoList.services.TaskCache;
+import com.example.ToDoList.services.TaskCounters;
+import com.example.ToDoList.services.TaskExporter;
+import com.example.ToDoList.services.TaskFeed;
+import com.example.ToDoList.services.TaskGroupCommit;
+import com.example.ToDoList.services.TaskImporter;
+import com.example.ToDoList.services.TaskReadModel;
+import com.example.ToDoList.services.TaskSearchIndex;
+import com.example.ToDoList.services.TaskWriteFence;
+import com.example.ToDoList.settings.TaskArchiveDb;
+import com.example.ToDoList.settings.TaskMetrics;
 import com.example.ToDoList.settings.ToDoListDb;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDate;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/ToDoList")
@@ -30,7 +54,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ToDoListController {
 
+    private static final int DEFAULT_PAGE_LIMIT = 50;
+    private static final int MAX_PAGE_LIMIT = 500;
+    private static final int MAX_BULK_SIZE = 10_000;
+
     private final ToDoListDb toDoListDb;
+    private final ApplicationEventPublisher events;
+    private final TaskMetrics taskMetrics;
+    private final TaskCache taskCache;
+    private final TaskExporter taskExporter;
+    private final TaskImporter taskImporter;
+    private final TaskFeed taskFeed;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskCounters taskCounters;
+    private final TaskArchiveDb taskArchiveDb;
+    private final TaskReadModel taskReadModel;
+    private final TaskGroupCommit taskGroupCommit;
+    private final TaskWriteFence taskWriteFence;
 
     @PostMapping("/taskCreate")
     @Operation(
@@ -39,6 +79,8 @@ public class ToDoListController {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "503", description = "Service Unavailable", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
@@ -49,40 +91,211 @@ public class ToDoListController {
                                             @RequestParam(required = false) LocalDateTime deadline,
                                             @RequestParam(required = false) Priority priority){
         try{
-            ToDoList task = new ToDoList();
-            task.setDescription(description != null ? description : "");
+            ToDoList task = TaskFactory.create(title, description, deadline, priority);
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                if (taskGroupCommit.isEnabled()) {
+                    taskGroupCommit.create(task);
+                } else {
+                    toDoListDb.save(task);
+                }
+                events.publishEvent(TaskEvent.created(task));
+            }
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(200, "Задание успешно создано"));
 
-            if (title.length() < 4){
+        } catch (TaskValidationException error) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(400, error.getMessage()));
+        } catch (IllegalArgumentException error) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(400, "Ошибка: " + error.getMessage()));
+        } catch (RejectedExecutionException error) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(503, error.getMessage()));
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @PostMapping("/taskCreateBulk")
+    @Operation(
+            summary = "Массовое создание заданий",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BulkItemResult.class)))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskCreateBulk(@RequestBody List<ToDoListCreate> tasks){
+        try {
+            if (tasks.size() > MAX_BULK_SIZE) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .body(new ResponseModel(400, "Имя не может быть короче 4 символов"));
+                        .body(new ResponseModel(400, "За один запрос можно создать не более " + MAX_BULK_SIZE + " заданий"));
+            }
+
+            List<BulkItemResult> results = new ArrayList<>(tasks.size());
+            List<ToDoList> valid = new ArrayList<>(tasks.size());
+            List<Integer> validIndexes = new ArrayList<>(tasks.size());
+
+            for (int i = 0; i < tasks.size(); i++) {
+                ToDoListCreate item = tasks.get(i);
+                try {
+                    valid.add(TaskFactory.create(item.getTitle(), item.getDescription(), item.getDeadline(), item.getPriority()));
+                    validIndexes.add(i);
+                    results.add(null);
+                } catch (IllegalArgumentException error) {
+                    results.add(new BulkItemResult(i, 400, error.getMessage(), null));
+                }
+            }
+
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                toDoListDb.insertBatch(valid);
+
+                for (int i = 0; i < valid.size(); i++) {
+                    ToDoList task = valid.get(i);
+                    int index = validIndexes.get(i);
+                    results.set(index, new BulkItemResult(index, 200, "Задание успешно создано", task.getId()));
+                    events.publishEvent(TaskEvent.created(task));
+                }
             }
 
-            if (deadline == null) {
-                deadline = extractDeadline(title);
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(results);
+
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @GetMapping("/taskList")
+    @Operation(
+            summary = "Просмотр списка задач",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskSummary.class))),
+                    @ApiResponse(responseCode = "304", description = "Not Modified", content = @Content()),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
             }
-            if (deadline != null && deadline.isBefore(LocalDateTime.now())) {
+    )
+    public ResponseEntity<?> taskList(@RequestParam(required = false) Status status,
+                                      @RequestParam(required = false) Priority priority,
+                                      @RequestParam(required = false) SortDirection sortDirection,
+                                      @RequestParam(required = false) Boolean sortByPriority,
+                                      @Parameter(description = "Курсор следующей страницы из nextCursor")
+                                      @RequestParam(required = false) String cursor,
+                                      @Parameter(description = "Размер страницы, включает постраничный режим")
+                                      @RequestParam(required = false) Integer limit,
+                                      @Parameter(description = "Возвращаемые поля через запятую, например id,title,status")
+                                      @RequestParam(required = false) String fields,
+                                      WebRequest webRequest){
+        try {
+            Set<String> fieldSet = TaskFields.parse(fields);
+            // полные строки при включенной модели чтения отдаются из памяти, выборка полей - всегда из базы
+            boolean inMemory = fieldSet == null && taskReadModel.isReady();
+
+            // версия берется до чтения строк: при гонке с записью ETag окажется старее данных, а не новее
+            TaskListVersion version = inMemory
+                    ? taskReadModel.version(status, priority)
+                    : toDoListDb.listVersion(status, priority);
+            String etag = ETags.of(version, queryString(webRequest));
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .build();
+            }
+
+            if (cursor == null && limit == null) {
+                List<?> tasks;
+                if (inMemory) {
+                    tasks = taskReadModel.list(status, priority, TaskCursor.Mode.of(sortDirection, sortByPriority));
+                } else if (fieldSet == null) {
+                    tasks = toDoListDb.findTasks(status, priority, sortDirection, sortByPriority);
+                } else {
+                    tasks = toDoListDb.findTaskFields(status, priority, TaskCursor.Mode.of(sortDirection, sortByPriority),
+                            null, null, fieldSet);
+                }
+                taskMetrics.recordListRows(tasks.size());
+
+                return ResponseEntity
+                        .status(HttpStatus.OK)
+                        .eTag(etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(tasks);
+            }
+
+            int pageLimit = limit != null ? limit : DEFAULT_PAGE_LIMIT;
+            if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
                 return ResponseEntity
                         .status(HttpStatus.BAD_REQUEST)
                         .contentType(MediaType.APPLICATION_JSON)
-                        .body(new ResponseModel(400, "Дедлайн нельзя указывать в прошлом"));
+                        .body(new ResponseModel(400, "Размер страницы должен быть от 1 до " + MAX_PAGE_LIMIT));
             }
-            task.setDeadline(deadline);
 
-            if (priority == null){
-                priority = detectPriority(title);
+            TaskCursor.Mode mode = TaskCursor.Mode.of(sortDirection, sortByPriority);
+            TaskCursor after = cursor != null ? TaskCursor.decode(cursor) : null;
+            if (after != null && after.mode() != mode) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Курсор не соответствует выбранной сортировке"));
             }
-            task.setPriority(priority);
 
-            title = cleanTitle(title);
-            task.setTitle(title);
-            toDoListDb.save(task);
+            List<?> tasks;
+            String nextCursor = null;
+            if (fieldSet == null) {
+                List<TaskSummary> page = inMemory
+                        ? taskReadModel.page(status, priority, mode, after, pageLimit + 1)
+                        : toDoListDb.findTaskPage(status, priority, mode, after, pageLimit + 1);
+                if (page.size() > pageLimit) {
+                    page = page.subList(0, pageLimit);
+                    nextCursor = TaskCursor.of(mode, page.get(pageLimit - 1)).encode();
+                }
+                tasks = page;
+            } else {
+                // поля курсора читаются всегда и убираются из ответа, если их не запрашивали
+                Set<String> selected = new LinkedHashSet<>(fieldSet);
+                selected.addAll(TaskCursor.FIELDS);
+                List<Map<String, Object>> page = toDoListDb.findTaskFields(status, priority, mode, after, pageLimit + 1, selected);
+                if (page.size() > pageLimit) {
+                    page = page.subList(0, pageLimit);
+                    nextCursor = TaskCursor.of(mode, page.get(pageLimit - 1)).encode();
+                }
+                page.forEach(row -> row.keySet().retainAll(fieldSet));
+                tasks = page;
+            }
+            taskMetrics.recordListRows(tasks.size());
 
             return ResponseEntity
                     .status(HttpStatus.OK)
+                    .eTag(etag)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body(new ResponseModel(200, "Задание успешно создано"));
+                    .body(new TaskPage(tasks, nextCursor));
 
         } catch (IllegalArgumentException error) {
             return ResponseEntity
@@ -98,48 +311,307 @@ public class ToDoListController {
     }
 
 
-    @GetMapping("/taskList")
+    @GetMapping("/taskStats")
     @Operation(
-            summary = "Просмотр списка задач",
+            summary = "Количество задач по статусам и приоритетам",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ToDoList.class))),
+                            schema = @Schema(implementation = TaskStats.class))),
+                    @ApiResponse(responseCode = "503", description = "Service Unavailable", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
     )
-    public ResponseEntity<?> taskList(@RequestParam(required = false) Status status,
-                                      @RequestParam(required = false) Priority priority,
-                                      @RequestParam(required = false) SortDirection sortDirection,
-                                      @RequestParam(required = false) Boolean sortByPriority){
+    public ResponseEntity<?> taskStats(){
         try {
+            if (!taskCounters.isReady()) {
+                return ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(503, "Статистика еще не подсчитана"));
+            }
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(taskCounters.stats());
+
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
 
-            List<ToDoList> tasks = toDoListDb.findAll();
 
-            if (status != null){
-                tasks = tasks.stream().filter(task -> task.getStatus() == status).collect(Collectors.toList());
+    @GetMapping("/taskSearch")
+    @Operation(
+            summary = "Полнотекстовый поиск по названию и описанию",
+            description = "Каждое слово запроса ищется как начало слова в задаче, задача должна содержать все слова. " +
+                    "Регистр и ё/е не различаются. Результаты отсортированы по релевантности.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskSearchResult.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "503", description = "Service Unavailable", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskSearch(@RequestParam String q,
+                                        @RequestParam(required = false) Status status,
+                                        @RequestParam(required = false) Priority priority,
+                                        @RequestParam(defaultValue = "0") int offset,
+                                        @RequestParam(required = false) Integer limit){
+        try {
+            int pageLimit = limit != null ? limit : DEFAULT_PAGE_LIMIT;
+            if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT || offset < 0) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Размер страницы должен быть от 1 до " + MAX_PAGE_LIMIT +
+                                ", смещение - неотрицательным"));
             }
-            if (priority != null){
-                tasks = tasks.stream().filter(task -> task.getPriority() == priority).collect(Collectors.toList());
+
+            if (!taskSearchIndex.isReady()) {
+                return ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(503, "Поисковый индекс еще строится"));
             }
-            if (Boolean.TRUE.equals(sortByPriority)) {
-                tasks.sort(Comparator.comparing(ToDoList::getPriority));
 
-            } else if (Boolean.FALSE.equals(sortByPriority)) {
-                tasks.sort(Comparator.comparing(ToDoList::getPriority).reversed());
+            TaskSearchResult result = taskSearchIndex.search(q, status, priority, offset, pageLimit);
+            taskMetrics.recordListRows(result.items().size());
 
-            } else {
-                if (sortDirection != null && sortDirection.equals(SortDirection.DESC)) {
-                    tasks.sort((t1, t2) -> t2.getCreateDate().compareTo(t1.getCreateDate()));
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(result);
+
+        } catch (IllegalArgumentException error) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(400, "Ошибка: " + error.getMessage()));
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @GetMapping("/taskArchive")
+    @Operation(
+            summary = "Просмотр архива завершенных задач",
+            description = "Задачи в статусах Completed и Late, не менявшиеся дольше todolist.archive.age, " +
+                    "переносятся сюда из основного списка. Сортировка - от новых к старым, постранично.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TaskPage.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskArchive(@RequestParam(required = false) Status status,
+                                         @RequestParam(required = false) Priority priority,
+                                         @Parameter(description = "Курсор следующей страницы из nextCursor")
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit){
+        try {
+            int pageLimit = limit != null ? limit : DEFAULT_PAGE_LIMIT;
+            if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Размер страницы должен быть от 1 до " + MAX_PAGE_LIMIT));
+            }
+
+            TaskCursor after = cursor != null ? TaskCursor.decode(cursor) : null;
+            if (after != null && after.mode() != TaskCursor.Mode.CREATED_DESC) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Курсор не соответствует выбранной сортировке"));
+            }
+
+            List<TaskSummary> page = taskArchiveDb.findArchivePage(status, priority, after, pageLimit + 1);
+            String nextCursor = null;
+            if (page.size() > pageLimit) {
+                page = page.subList(0, pageLimit);
+                nextCursor = TaskCursor.of(TaskCursor.Mode.CREATED_DESC, page.get(pageLimit - 1)).encode();
+            }
+            taskMetrics.recordListRows(page.size());
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new TaskPage(page, nextCursor));
+
+        } catch (IllegalArgumentException error) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(400, "Ошибка: " + error.getMessage()));
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @GetMapping("/getArchivedTask")
+    @Operation(
+            summary = "Просмотр конкретной задачи из архива",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ArchivedTask.class))),
+                    @ApiResponse(responseCode = "404", description = "Not Found", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> getArchivedTask(@RequestParam UUID id){
+        try {
+            ArchivedTask task = taskArchiveDb.findById(id).orElse(null);
+            if (task == null){
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(404, "Указанное задание не найдено в архиве"));
+            }
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(task);
+
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+    @GetMapping("/taskEvents")
+    @Operation(
+            summary = "Лента изменений задач (Server-Sent Events)",
+            description = "События CREATED, EDITED, STATUS_CHANGED, DELETED, OVERDUE, BULK_STATUS_CHANGED, BULK_DELETED, ARCHIVED. " +
+                    "С фильтром по статусу или приоритету изменения задач вне выборки приходят как REMOVED. " +
+                    "При переподключении заголовок Last-Event-ID продолжает ленту с места обрыва; если события " +
+                    "уже вытеснены из буфера или id остался от прошлого запуска сервера, приходит RESET и список нужно перечитать.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "text/event-stream",
+                            schema = @Schema(implementation = TaskFeedItem.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskEvents(@RequestParam(required = false) Status status,
+                                        @RequestParam(required = false) Priority priority,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        try {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(taskFeed.subscribe(status, priority, lastEventId));
+
+        } catch (IllegalArgumentException error) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(400, error.getMessage()));
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @GetMapping("/taskExport")
+    @Operation(
+            summary = "Потоковая выгрузка задач в NDJSON или CSV",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv")}),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskExport(@RequestParam(required = false) ExportFormat format,
+                                        @RequestParam(required = false) Status status,
+                                        @RequestParam(required = false) Priority priority,
+                                        @Parameter(description = "Сжимать ответ gzip на лету")
+                                        @RequestParam(defaultValue = "false") boolean gzip){
+        try {
+            ExportFormat exportFormat = format != null ? format : ExportFormat.NDJSON;
+            boolean csv = exportFormat == ExportFormat.CSV;
+
+            StreamingResponseBody body = out -> {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    taskExporter.export(exportFormat, status, priority, compressed);
+                    compressed.finish();
                 } else {
-                    tasks.sort((t1, t2) -> t1.getCreateDate().compareTo(t2.getCreateDate()));
+                    taskExporter.export(exportFormat, status, priority, out);
                 }
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + (csv ? "csv" : "ndjson") + "\"");
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
             }
+            return response.body(body);
 
+        } catch (Exception error){
             return ResponseEntity
-                    .status(HttpStatus.OK)
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body(tasks);
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
+    @PostMapping("/taskImport")
+    @Operation(
+            summary = "Потоковый импорт задач из NDJSON или CSV",
+            description = "Тело запроса читается по мере поступления. В ответ построчно (NDJSON) приходят отклоненные записи, " +
+                    "прогресс после каждой записанной пачки и итог.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = ImportReport.class))),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskImport(@RequestParam(required = false) ExportFormat format,
+                                        HttpServletRequest request){
+        try {
+            ExportFormat importFormat = format != null ? format : ExportFormat.NDJSON;
+            InputStream in = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                    ? new GZIPInputStream(request.getInputStream(), 64 * 1024)
+                    : request.getInputStream();
+
+            StreamingResponseBody body = out -> taskImporter.importTasks(importFormat, in, out);
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
 
         } catch (Exception error){
             return ResponseEntity
@@ -158,6 +630,8 @@ public class ToDoListController {
                             schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
                     @ApiResponse(responseCode = "404", description = "Not Found", content = @Content()),
+                    @ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
@@ -167,7 +641,9 @@ public class ToDoListController {
                                        @RequestParam(required = false) String description,
                                        @Parameter(example = "2025-07-27T11:55:22")
                                        @RequestParam(required = false) LocalDateTime deadline,
-                                       @RequestParam(required = false) Priority priority){
+                                       @RequestParam(required = false) Priority priority,
+                                       @Parameter(description = "ETag из getSpecificTask: изменить, только если задачу не меняли")
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
             ToDoList task = toDoListDb.findById(id).orElse(null);
             if (task == null){
@@ -177,18 +653,29 @@ public class ToDoListController {
                         .body(new ResponseModel(404, "Указанное задание не найдено"));
             }
 
+            Long expectedVersion = ETags.version(ifMatch, id);
+            if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(409, "Задание было изменено параллельно, перечитайте его и повторите запрос"));
+            }
+
+            Status previousStatus = task.getStatus();
+            Priority previousPriority = task.getPriority();
+
             if(title != null) {
+                TitleMacros macros = TitleMacros.parse(title);
 
                 if (priority == null){
-                    priority = detectPriority(title);
+                    priority = macros.priority();
                 }
 
                 if (deadline == null) {
-                    deadline = extractDeadline(title);
+                    deadline = macros.deadline();
                 }
 
-                title = cleanTitle(title);
-                task.setTitle(title);
+                task.setTitle(macros.title());
             }
 
             if(description != null) task.setDescription(description);
@@ -206,13 +693,22 @@ public class ToDoListController {
             task.setPriority(priority);
 
             task.setUpdateDate(LocalDateTime.now());
-            toDoListDb.save(task);
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                task = toDoListDb.save(task);
+                events.publishEvent(TaskEvent.edited(task, previousStatus, previousPriority));
+            }
 
             return ResponseEntity
                     .status(HttpStatus.OK)
+                    .eTag(ETags.of(task.getId(), task.getVersion()))
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(new ResponseModel(200, "Задание успешно отредактирована"));
 
+        } catch (ObjectOptimisticLockingFailureException error) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(409, "Задание было изменено параллельно, перечитайте его и повторите запрос"));
         } catch (Exception error){
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -229,24 +725,38 @@ public class ToDoListController {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "404", description = "Not Found", content = @Content()),
+                    @ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
     )
-    public ResponseEntity<?> teskDelete (@RequestParam UUID id){
+    public ResponseEntity<?> teskDelete (@RequestParam UUID id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
 
         try {
-
-            ToDoList task = toDoListDb.findById(id).orElse(null);
+            // один DELETE, который сразу возвращает удаленную строку: отдельный findById не нужен
+            Long expectedVersion = ETags.version(ifMatch, id);
+            ToDoList task;
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                task = toDoListDb.deleteTask(id, expectedVersion).orElse(null);
+                if (task != null) {
+                    events.publishEvent(TaskEvent.deleted(task));
+                }
+            }
             if (task == null){
+                if (expectedVersion != null && toDoListDb.existsById(id)) {
+                    return ResponseEntity
+                            .status(HttpStatus.CONFLICT)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(new ResponseModel(409, "Задание было изменено параллельно, перечитайте его и повторите запрос"));
+                }
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(new ResponseModel(404, "Указанное задание не найдено"));
             }
 
-            toDoListDb.delete(task);
-
             return ResponseEntity
                     .status(HttpStatus.OK)
                     .contentType(MediaType.APPLICATION_JSON)
@@ -261,20 +771,71 @@ public class ToDoListController {
     }
 
 
+    @DeleteMapping("/taskDeleteBulk")
+    @Operation(
+            summary = "Массовое удаление задач по списку id или по фильтру",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResponseModel.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskDeleteBulk(@RequestBody(required = false) List<UUID> ids,
+                                            @RequestParam(required = false) Status status,
+                                            @Parameter(description = "Только задачи, не изменявшиеся указанное число дней")
+                                            @RequestParam(required = false) Integer olderThanDays){
+        try {
+            if (olderThanDays != null && olderThanDays < 0) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "olderThanDays не может быть отрицательным"));
+            }
+            if ((ids == null || ids.isEmpty()) && status == null) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Укажите список id или статус задач"));
+            }
+            List<UUID> deleted;
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                deleted = ids != null && !ids.isEmpty()
+                        ? toDoListDb.deleteBulk(ids)
+                        : toDoListDb.deleteBulk(status, olderThan(olderThanDays));
+                events.publishEvent(TaskEvent.bulkDeleted(deleted));
+            }
+
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new BulkResponseModel(200, "Задания успешно удалены", deleted.size()));
+
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
+        }
+    }
+
+
     @GetMapping("/getSpecificTask")
     @Operation(
             summary = "Просмотр конкретной задачи",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ToDoList.class))),
+                            schema = @Schema(implementation = TaskDetails.class))),
+                    @ApiResponse(responseCode = "304", description = "Not Modified", content = @Content()),
                     @ApiResponse(responseCode = "404", description = "Not Found", content = @Content()),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
     )
-    public ResponseEntity<?> getSpecificTask(@RequestParam UUID id){
+    public ResponseEntity<?> getSpecificTask(@RequestParam UUID id, WebRequest webRequest){
         try {
-            ToDoList task = toDoListDb.findById(id).orElse(null);
+            TaskDetails task = taskCache.get(id);
             if (task == null){
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
@@ -282,8 +843,17 @@ public class ToDoListController {
                         .body(new ResponseModel(404, "Указанное задание не найдено"));
             }
 
+            String etag = ETags.of(task);
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .build();
+            }
+
             return ResponseEntity
                     .status(HttpStatus.OK)
+                    .eTag(etag)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(task);
 
@@ -303,49 +873,44 @@ public class ToDoListController {
                     @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "404", description = "Not Found", content = @Content()),
+                    @ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class))),
                     @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ResponseModel.class)))
             }
     )
     public ResponseEntity<?> taskChangeStatus (@RequestParam UUID id,
-                                               @RequestParam boolean completed){
+                                               @RequestParam boolean completed,
+                                               @Parameter(description = "ETag из getSpecificTask: изменить, только если задачу не меняли")
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         try {
-
-            ToDoList task = toDoListDb.findById(id).orElse(null);
-            if (task == null){
+            // один UPDATE: новый статус считается в базе по текущему дедлайну, без предварительного чтения строки
+            Long expectedVersion = ETags.version(ifMatch, id);
+            StatusChange change;
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                change = toDoListDb.changeTaskStatus(id, expectedVersion, completed, LocalDateTime.now()).orElse(null);
+                if (change != null) {
+                    events.publishEvent(TaskEvent.statusChanged(change.task(), change.previousStatus()));
+                }
+            }
+            if (change == null){
+                if (expectedVersion != null && toDoListDb.existsById(id)) {
+                    return ResponseEntity
+                            .status(HttpStatus.CONFLICT)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(new ResponseModel(409, "Задание было изменено параллельно, перечитайте его и повторите запрос"));
+                }
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
                         .contentType(MediaType.APPLICATION_JSON)
                         .body(new ResponseModel(404, "Указанное задание не найдено"));
             }
 
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime deadline = task.getDeadline();
-
-            if (task.getStatus() == Status.Active && deadline != null && now.isAfter(deadline)) {
-                task.setStatus(Status.Overdue);
-            }
-
-            if (completed) {
-                if (deadline != null && now.isAfter(deadline)) {
-                    task.setStatus(Status.Late);
-                } else {
-                    task.setStatus(Status.Completed);
-                }
-            }
-            else {
-                if (deadline != null && now.isAfter(deadline)) {
-                    task.setStatus(Status.Overdue);
-                } else {
-                    task.setStatus(Status.Active);
-                }
-            }
-
-            task.setUpdateDate(now);
-            toDoListDb.save(task);
+            ToDoList task = change.task();
 
             return ResponseEntity
                     .status(HttpStatus.OK)
+                    .eTag(ETags.of(id, task.getVersion()))
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(new ResponseModel(200, "Статус успешно изменен"));
 
@@ -357,46 +922,68 @@ public class ToDoListController {
         }
     }
 
-    private Priority detectPriority (String titel){
-        if (titel.contains("!1")) return Priority.Critical;
-        if (titel.contains("!2")) return Priority.High;
-        if (titel.contains("!3")) return Priority.Medium;
-        if (titel.contains("!4")) return Priority.Low;
-        return Priority.Medium;
-    }
-
-    private LocalDateTime extractDeadline(String title) {
-        if (title.contains("!before")) {
-            String[] parts = title.split("!before ");
-            if (parts.length > 1) {
-                String dateStr = parts[1].split(" ")[0].replace("-", ".");
 
-                try {
-                    LocalDate deadline = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-                    LocalDateTime deadlineDateTime = deadline.atTime(23, 59, 59);
+    @PutMapping("/taskChangeStatusBulk")
+    @Operation(
+            summary = "Массовое маркирование задач по списку id или по фильтру",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Success", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkResponseModel.class))),
+                    @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content()),
+                    @ApiResponse(responseCode = "500", description = "InternalServerError", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseModel.class)))
+            }
+    )
+    public ResponseEntity<?> taskChangeStatusBulk(@RequestBody(required = false) List<UUID> ids,
+                                                  @RequestParam boolean completed,
+                                                  @RequestParam(required = false) Status status,
+                                                  @Parameter(description = "Только задачи, не изменявшиеся указанное число дней")
+                                                  @RequestParam(required = false) Integer olderThanDays){
+        try {
+            if (olderThanDays != null && olderThanDays < 0) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "olderThanDays не может быть отрицательным"));
+            }
+            if ((ids == null || ids.isEmpty()) && status == null) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new ResponseModel(400, "Укажите список id или статус задач"));
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<ChangedStatus> changed;
+            try (TaskWriteFence.Permit write = taskWriteFence.write()) {
+                changed = ids != null && !ids.isEmpty()
+                        ? toDoListDb.changeStatusBulk(ids, completed, now)
+                        : toDoListDb.changeStatusBulk(status, olderThan(olderThanDays), completed, now);
+                events.publishEvent(TaskEvent.bulkStatusChanged(changed));
+            }
 
-                    if (deadlineDateTime.isBefore(LocalDateTime.now())) {
-                        throw new IllegalArgumentException("Дедлайн уже прошел");
-                    }
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new BulkResponseModel(200, "Статусы успешно изменены", changed.size()));
 
-                    return deadlineDateTime;
-                } catch (DateTimeParseException e) {
-                    throw new IllegalArgumentException("Неверный формат даты");
-                }
-            }
+        } catch (Exception error){
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ResponseModel(500, "Ошибка: " + error.getMessage()));
         }
-        return null;
     }
 
-    private String cleanTitle(String title) {
-        title = title.replaceAll("!1", "")
-                .replaceAll("!2", "")
-                .replaceAll("!3", "")
-                .replaceAll("!4", "");
-
-        title = title.replaceAll("!before\\s\\d{2}[.-]\\d{2}[.-]\\d{4}", "");
+    private LocalDateTime olderThan(Integer days) {
+        return days != null ? LocalDateTime.now().minusDays(days) : null;
+    }
 
-        return title.trim().replaceAll("\\s{2,}", " ");
+    // параметры в порядке имен: один и тот же список дает один ETag независимо от порядка в URL
+    private static String queryString(WebRequest request) {
+        StringBuilder query = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                query.append(name).append('=').append(String.join(",", values)).append('&'));
+        return query.toString();
     }
 
-}
\ No newline at end of file
+}
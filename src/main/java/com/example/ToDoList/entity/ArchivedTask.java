@@ -0,0 +1,47 @@
+package com.example.ToDoList.entity;
+
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Завершенная задача, перенесенная из todolist архиватором. Строки только добавляются и читаются,
+// id сохраняется прежним
+@Entity
+@Getter
+@Setter
+@Table(name = "todolist_archive", indexes = {
+        @Index(name = "idx_archive_created_id", columnList = "create_date, id"),
+        @Index(name = "idx_archive_status_priority_created", columnList = "status, priority, create_date")
+})
+@NoArgsConstructor
+public class ArchivedTask {
+
+    @Id
+    private UUID id;
+
+    private String title;
+    private String description;
+    private LocalDateTime deadline;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+
+    @Column(nullable = false)
+    private LocalDateTime createDate;
+
+    @Column(nullable = false)
+    private LocalDateTime updateDate;
+
+    @Column(nullable = false)
+    private LocalDateTime archiveDate;
+}
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -17,12 +18,20 @@ import java.util.UUID;
 @Entity
 @Getter
 @Setter
-@Table(name = "todolist")
+@Table(name = "todolist", indexes = {
+        @Index(name = "idx_todolist_status_priority_created_id", columnList = "status, priority, create_date, id"),
+        @Index(name = "idx_todolist_priority_created_id", columnList = "priority, create_date, id"),
+        @Index(name = "idx_todolist_status_deadline", columnList = "status, deadline"),
+        @Index(name = "idx_todolist_created_id", columnList = "create_date, id"),
+        @Index(name = "idx_todolist_status_priority_updated", columnList = "status, priority, update_date"),
+        @Index(name = "idx_todolist_status_updated", columnList = "status, update_date")
+})
 @NoArgsConstructor
 public class ToDoList {
 
+    // старые строки с UUID v4 остаются как есть: тип колонки не меняется
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @NotBlank(message = "Обязательно заполнить название")
@@ -44,4 +53,10 @@ public class ToDoList {
 
     @Column(nullable = false)
     private LocalDateTime updateDate = LocalDateTime.now();
+
+    // без начального значения: по null Spring Data отличает новую сущность от существующей
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
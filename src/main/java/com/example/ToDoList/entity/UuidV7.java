@@ -0,0 +1,31 @@
+package com.example.ToDoList.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// UUID версии 7 (RFC 9562): 48 бит миллисекунд Unix-времени, 12 бит счетчика внутри миллисекунды, 62 бита случайных.
+// Значения монотонно растут и при параллельной генерации: время и счетчик сдвигаются одним CAS, а при переполнении
+// счетчика или отставании часов продолжают расти от последнего выданного значения.
+public final class UuidV7 {
+
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long stamp;
+        long last;
+        do {
+            last = LAST.get();
+            stamp = Math.max(System.currentTimeMillis() << 12, last + 1);
+        } while (!LAST.compareAndSet(last, stamp));
+
+        long millis = stamp >>> 12;
+        long counter = stamp & 0xFFF;
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ToDoList.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class BulkItemResult {
+    private int index;
+    private int status;
+    private String message;
+    private UUID id;
+}
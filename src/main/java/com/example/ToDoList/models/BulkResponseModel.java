@@ -0,0 +1,16 @@
+package com.example.ToDoList.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResponseModel {
+    private int status;
+    private String message;
+    private int affected;
+}
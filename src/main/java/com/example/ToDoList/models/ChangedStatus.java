@@ -0,0 +1,9 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Задача, которой массовая операция сменила статус: новый статус и время изменения из самой строки,
+// чтобы индексы в памяти обновились без повторного чтения задач
+public record ChangedStatus(UUID id, Status status, LocalDateTime updateDate) {
+}
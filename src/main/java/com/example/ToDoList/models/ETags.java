@@ -0,0 +1,56 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// Сильные ETag: задача - id и версия (они же проверяются в If-Match), список - агрегат по фильтру и параметры запроса
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(TaskDetails task) {
+        return of(task.id(), task.version());
+    }
+
+    public static String of(UUID id, Long version) {
+        return quote(id + ":" + version);
+    }
+
+    public static String of(TaskListVersion version, String query) {
+        String params = query == null ? "" : Integer.toHexString(query.hashCode());
+        return quote(version.count() + "-" + stamp(version.lastUpdate()) + "-" + params);
+    }
+
+    // версия из If-Match; null - заголовка нет или "*". ETag другой задачи или нераспознанный заголовок
+    // дают -1: такая версия не совпадет ни с одной, и запрос получит конфликт
+    public static Long version(String ifMatch, UUID id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        int colon = value.lastIndexOf(':');
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"") || colon < 0) {
+            return -1L;
+        }
+        try {
+            UUID taggedId = UUID.fromString(value.substring(1, colon));
+            long version = Long.parseLong(value.substring(colon + 1, value.length() - 1));
+            return taggedId.equals(id) ? version : -1L;
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
+    private static String stamp(LocalDateTime time) {
+        if (time == null) {
+            return "0";
+        }
+        return Long.toHexString(time.toEpochSecond(ZoneOffset.UTC)) + "." + Integer.toHexString(time.getNano());
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.ToDoList.models;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
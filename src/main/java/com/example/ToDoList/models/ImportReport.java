@@ -0,0 +1,23 @@
+package com.example.ToDoList.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportReport(String type, Long record, String message, Long inserted, Long rejected) {
+
+    public static ImportReport rejected(long record, String message) {
+        return new ImportReport("rejected", record, message, null, null);
+    }
+
+    public static ImportReport progress(long inserted, long rejected) {
+        return new ImportReport("progress", null, null, inserted, rejected);
+    }
+
+    public static ImportReport done(long inserted, long rejected) {
+        return new ImportReport("done", null, null, inserted, rejected);
+    }
+
+    public static ImportReport failed(String message, long inserted, long rejected) {
+        return new ImportReport("failed", null, message, inserted, rejected);
+    }
+}
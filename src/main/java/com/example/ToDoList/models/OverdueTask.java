@@ -0,0 +1,7 @@
+package com.example.ToDoList.models;
+
+import java.util.UUID;
+
+// Задача, которую переключил в Overdue OverdueSweeper; приоритет нужен счетчикам статистики
+public record OverdueTask(UUID id, Priority priority) {
+}
@@ -0,0 +1,7 @@
+package com.example.ToDoList.models;
+
+import com.example.ToDoList.entity.ToDoList;
+
+// Результат смены статуса одной задачи: задача после изменения и статус до него
+public record StatusChange(ToDoList task, Status previousStatus) {
+}
@@ -0,0 +1,4 @@
+package com.example.ToDoList.models;
+
+public record TaskCount(Status status, Priority priority, Long count) {
+}
@@ -0,0 +1,100 @@
+package com.example.ToDoList.models;
+
+import com.example.ToDoList.entity.ToDoList;
+
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskCsv {
+
+    public static final String HEADER = "id,title,description,deadline,status,priority,createDate,updateDate";
+
+    public static void write(Writer writer, ToDoList task) throws IOException {
+        writer.write(String.valueOf(task.getId()));
+        writer.write(',');
+        field(writer, task.getTitle());
+        writer.write(',');
+        field(writer, task.getDescription());
+        writer.write(',');
+        field(writer, task.getDeadline());
+        writer.write(',');
+        field(writer, task.getStatus());
+        writer.write(',');
+        field(writer, task.getPriority());
+        writer.write(',');
+        field(writer, task.getCreateDate());
+        writer.write(',');
+        field(writer, task.getUpdateDate());
+        writer.write('\n');
+    }
+
+    private static void field(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    // Читает одну CSV-запись (поля в кавычках могут содержать запятые и переводы строк); null - конец потока
+    public static List<String> read(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
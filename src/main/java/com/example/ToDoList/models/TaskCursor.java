@@ -0,0 +1,63 @@
+package com.example.ToDoList.models;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record TaskCursor(Mode mode, int rank, LocalDateTime createDate, UUID id) {
+
+    // поля, без которых нельзя построить курсор по строке выборки fields=
+    public static final List<String> FIELDS = List.of("id", "createDate", "priority");
+
+    public enum Mode {
+        CREATED_ASC,
+        CREATED_DESC,
+        PRIORITY_ASC,
+        PRIORITY_DESC;
+
+        public static Mode of(SortDirection sortDirection, Boolean sortByPriority) {
+            if (Boolean.TRUE.equals(sortByPriority)) return PRIORITY_ASC;
+            if (Boolean.FALSE.equals(sortByPriority)) return PRIORITY_DESC;
+            return sortDirection == SortDirection.DESC ? CREATED_DESC : CREATED_ASC;
+        }
+
+        public boolean byPriority() {
+            return this == PRIORITY_ASC || this == PRIORITY_DESC;
+        }
+    }
+
+    public static int rank(Priority priority) {
+        return priority == null ? -1 : priority.ordinal();
+    }
+
+    public static TaskCursor of(Mode mode, TaskSummary task) {
+        return new TaskCursor(mode, rank(task.priority()), task.createDate(), task.id());
+    }
+
+    public static TaskCursor of(Mode mode, Map<String, Object> row) {
+        return new TaskCursor(mode, rank((Priority) row.get("priority")),
+                (LocalDateTime) row.get("createDate"), (UUID) row.get("id"));
+    }
+
+    public String encode() {
+        String raw = mode.name() + "|" + rank + "|" + createDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Неверный курсор");
+            }
+            return new TaskCursor(Mode.valueOf(parts[0]), Integer.parseInt(parts[1]),
+                    LocalDateTime.parse(parts[2]), UUID.fromString(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Неверный курсор");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+public record TaskDeadline(UUID id, LocalDateTime deadline) {
+
+    public static final Comparator<TaskDeadline> ORDER = Comparator
+            .comparing(TaskDeadline::deadline)
+            .thenComparing(TaskDeadline::id);
+}
@@ -0,0 +1,15 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TaskDetails(UUID id,
+                          String title,
+                          String description,
+                          LocalDateTime deadline,
+                          Status status,
+                          Priority priority,
+                          LocalDateTime createDate,
+                          LocalDateTime updateDate,
+                          Long version) {
+}
@@ -0,0 +1,46 @@
+package com.example.ToDoList.models;
+
+import com.example.ToDoList.entity.ToDoList;
+
+import java.util.List;
+import java.util.UUID;
+
+// previousStatus и previousPriority - состояние задачи до изменения, если оно известно;
+// statuses - новые статусы задач массовой смены статуса, ids - те же задачи
+public record TaskEvent(TaskEventType type, UUID id, ToDoList task, List<UUID> ids,
+                        Status previousStatus, Priority previousPriority, List<ChangedStatus> statuses) {
+
+    public static TaskEvent created(ToDoList task) {
+        return new TaskEvent(TaskEventType.CREATED, task.getId(), task, null, null, null, null);
+    }
+
+    public static TaskEvent edited(ToDoList task, Status previousStatus, Priority previousPriority) {
+        return new TaskEvent(TaskEventType.EDITED, task.getId(), task, null, previousStatus, previousPriority, null);
+    }
+
+    public static TaskEvent statusChanged(ToDoList task, Status previousStatus) {
+        return new TaskEvent(TaskEventType.STATUS_CHANGED, task.getId(), task, null, previousStatus, task.getPriority(), null);
+    }
+
+    public static TaskEvent deleted(ToDoList task) {
+        return new TaskEvent(TaskEventType.DELETED, task.getId(), task, null, task.getStatus(), task.getPriority(), null);
+    }
+
+    public static TaskEvent overdue(OverdueTask task) {
+        return new TaskEvent(TaskEventType.OVERDUE, task.id(), null, null, Status.Active, task.priority(), null);
+    }
+
+    public static TaskEvent bulkStatusChanged(List<ChangedStatus> statuses) {
+        List<UUID> ids = statuses.stream().map(ChangedStatus::id).toList();
+        return new TaskEvent(TaskEventType.BULK_STATUS_CHANGED, null, null, ids, null, null, statuses);
+    }
+
+    public static TaskEvent bulkDeleted(List<UUID> ids) {
+        return new TaskEvent(TaskEventType.BULK_DELETED, null, null, ids, null, null, null);
+    }
+
+    // задачи перенесены в архив и из основной таблицы исчезли так же, как при удалении
+    public static TaskEvent archived(List<UUID> ids) {
+        return new TaskEvent(TaskEventType.ARCHIVED, null, null, ids, null, null, null);
+    }
+}
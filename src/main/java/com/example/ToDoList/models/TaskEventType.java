@@ -0,0 +1,12 @@
+package com.example.ToDoList.models;
+
+public enum TaskEventType {
+    CREATED,
+    EDITED,
+    STATUS_CHANGED,
+    DELETED,
+    OVERDUE,
+    BULK_STATUS_CHANGED,
+    BULK_DELETED,
+    ARCHIVED
+}
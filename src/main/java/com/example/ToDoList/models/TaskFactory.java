@@ -0,0 +1,34 @@
+package com.example.ToDoList.models;
+
+import com.example.ToDoList.entity.ToDoList;
+
+import java.time.LocalDateTime;
+
+public class TaskFactory {
+
+    public static ToDoList create(String title, String description, LocalDateTime deadline, Priority priority) {
+        if (title == null || title.length() < 4) {
+            throw new TaskValidationException("Имя не может быть короче 4 символов");
+        }
+
+        TitleMacros macros = TitleMacros.parse(title);
+
+        if (deadline == null) {
+            deadline = macros.deadline();
+        }
+        if (deadline != null && deadline.isBefore(LocalDateTime.now())) {
+            throw new TaskValidationException("Дедлайн нельзя указывать в прошлом");
+        }
+
+        if (priority == null) {
+            priority = macros.priority();
+        }
+
+        ToDoList task = new ToDoList();
+        task.setDescription(description != null ? description : "");
+        task.setDeadline(deadline);
+        task.setPriority(priority);
+        task.setTitle(macros.title());
+        return task;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ToDoList.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+// Данные одного события ленты /taskEvents: задача целиком, если она известна, иначе только id
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskFeedItem(UUID id, TaskSummary task, List<UUID> ids) {
+}
@@ -0,0 +1,36 @@
+package com.example.ToDoList.models;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Разбор параметра fields=id,title,... для выборки только нужных колонок
+public final class TaskFields {
+
+    public static final List<String> ALL = List.of(
+            "id", "title", "description", "deadline", "status", "priority", "createDate", "updateDate");
+
+    private TaskFields() {
+    }
+
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ALL.contains(name)) {
+                throw new IllegalArgumentException("Неизвестное поле: " + name);
+            }
+            result.add(name);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Не указано ни одного поля");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDateTime;
+
+// count(*) и max(updateDate) по фильтру списка: любое создание, изменение или удаление меняет хотя бы одно из них
+public record TaskListVersion(Long count, LocalDateTime lastUpdate) {
+}
@@ -0,0 +1,13 @@
+package com.example.ToDoList.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TaskPage {
+    private List<?> items;
+    private String nextCursor;
+}
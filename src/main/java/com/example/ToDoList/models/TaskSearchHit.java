@@ -0,0 +1,4 @@
+package com.example.ToDoList.models;
+
+public record TaskSearchHit(TaskSummary task, double score) {
+}
@@ -0,0 +1,6 @@
+package com.example.ToDoList.models;
+
+import java.util.List;
+
+public record TaskSearchResult(long total, List<TaskSearchHit> items) {
+}
@@ -0,0 +1,10 @@
+package com.example.ToDoList.models;
+
+import java.util.Map;
+
+public record TaskStats(long total,
+                        long overdue,
+                        Map<Status, Long> byStatus,
+                        Map<Priority, Long> byPriority,
+                        Map<Status, Map<Priority, Long>> byStatusAndPriority) {
+}
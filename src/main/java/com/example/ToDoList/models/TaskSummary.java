@@ -0,0 +1,21 @@
+package com.example.ToDoList.models;
+
+import com.example.ToDoList.entity.ToDoList;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Строка списка задач: все колонки, кроме description
+public record TaskSummary(UUID id,
+                          String title,
+                          LocalDateTime deadline,
+                          Status status,
+                          Priority priority,
+                          LocalDateTime createDate,
+                          LocalDateTime updateDate) {
+
+    public static TaskSummary of(ToDoList task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.getDeadline(), task.getStatus(),
+                task.getPriority(), task.getCreateDate(), task.getUpdateDate());
+    }
+}
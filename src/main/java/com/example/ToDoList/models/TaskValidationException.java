@@ -0,0 +1,7 @@
+package com.example.ToDoList.models;
+
+public class TaskValidationException extends IllegalArgumentException {
+    public TaskValidationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.ToDoList.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// Разбор макросов названия (!1..!4 и !before дата) за один проход по строке, без регулярных выражений.
+// Результат совпадает с прежней цепочкой contains/split/replaceAll.
+public final class TitleMacros {
+
+    private static final String BEFORE = "!before ";
+    private static final String BEFORE_MACRO = "!before";
+    private static final int BEFORE_MACRO_LENGTH = 18; // "!before" + пробел + dd.MM.yyyy
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final Priority priority;
+    private final String dateText;
+    private final String title;
+
+    private TitleMacros(Priority priority, String dateText, String title) {
+        this.priority = priority;
+        this.dateText = dateText;
+        this.title = title;
+    }
+
+    public Priority priority() {
+        return priority;
+    }
+
+    public LocalDateTime deadline() {
+        if (dateText == null) {
+            return null;
+        }
+        try {
+            LocalDate deadline = LocalDate.parse(dateText, DATE_FORMAT);
+            LocalDateTime deadlineDateTime = deadline.atTime(23, 59, 59);
+
+            if (deadlineDateTime.isBefore(LocalDateTime.now())) {
+                throw new IllegalArgumentException("Дедлайн уже прошел");
+            }
+
+            return deadlineDateTime;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверный формат даты");
+        }
+    }
+
+    public String title() {
+        return title;
+    }
+
+    public static TitleMacros parse(String title) {
+        int length = title.length();
+
+        int seenPriorities = 0;
+        int firstBefore = -1;
+        int secondBefore = -1;
+
+        // Стек символов без макросов приоритета. removedAfter[k] - наибольший номер макроса !n, удаленного
+        // между out[k-1] и следующим символом: replaceAll("!1")..replaceAll("!4") шли по очереди, поэтому
+        // пара "!n", ставшая соседней только после удаления !m при m >= n, удалена не была.
+        char[] out = new char[length];
+        int[] removedAfter = new int[length + 1];
+        int top = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = title.charAt(i);
+
+            if (c == '!' && title.startsWith(BEFORE, i)) {
+                if (firstBefore < 0) {
+                    firstBefore = i;
+                } else if (secondBefore < 0) {
+                    secondBefore = i;
+                }
+            }
+
+            if (c >= '1' && c <= '4') {
+                int macro = c - '0';
+                if (i > 0 && title.charAt(i - 1) == '!') {
+                    seenPriorities |= 1 << macro;
+                }
+                if (top > 0 && out[top - 1] == '!' && removedAfter[top] < macro) {
+                    top--;
+                    removedAfter[top] = Math.max(removedAfter[top], macro);
+                    continue;
+                }
+            }
+
+            out[top++] = c;
+            removedAfter[top] = 0;
+        }
+
+        return new TitleMacros(priority(seenPriorities), dateText(title, firstBefore, secondBefore), clean(out, top));
+    }
+
+    private static Priority priority(int seen) {
+        if ((seen & (1 << 1)) != 0) return Priority.Critical;
+        if ((seen & (1 << 2)) != 0) return Priority.High;
+        if ((seen & (1 << 3)) != 0) return Priority.Medium;
+        if ((seen & (1 << 4)) != 0) return Priority.Low;
+        return Priority.Medium;
+    }
+
+    // Аналог title.split("!before ")[1].split(" ")[0].replace("-", "."):
+    // берется текст после первого "!before " до пробела или следующего "!before ".
+    private static String dateText(String title, int firstBefore, int secondBefore) {
+        if (firstBefore < 0) {
+            return null;
+        }
+        int start = firstBefore + BEFORE.length();
+
+        // split отбрасывает пустые хвосты: если дальше только "!before ", макроса как будто нет
+        int rest = start;
+        while (title.startsWith(BEFORE, rest)) {
+            rest += BEFORE.length();
+        }
+        if (rest == title.length()) {
+            return null;
+        }
+
+        int end = secondBefore >= 0 ? secondBefore : title.length();
+        int space = title.indexOf(' ', start);
+        if (space >= 0 && space < end) {
+            end = space;
+        }
+        return title.substring(start, end).replace('-', '.');
+    }
+
+    // Удаление "!before dd.MM.yyyy", trim и схлопывание пробельных серий в один пробел
+    private static String clean(char[] chars, int length) {
+        int kept = 0;
+        for (int i = 0; i < length; ) {
+            if (isBeforeMacro(chars, i, length)) {
+                i += BEFORE_MACRO_LENGTH;
+            } else {
+                chars[kept++] = chars[i++];
+            }
+        }
+
+        int start = 0;
+        int end = kept;
+        while (start < end && chars[start] <= ' ') start++;
+        while (end > start && chars[end - 1] <= ' ') end--;
+
+        StringBuilder result = new StringBuilder(end - start);
+        for (int i = start; i < end; ) {
+            int run = i;
+            while (run < end && isSpace(chars[run])) run++;
+            if (run - i >= 2) {
+                result.append(' ');
+                i = run;
+            } else {
+                result.append(chars[i++]);
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isBeforeMacro(char[] chars, int i, int length) {
+        if (i + BEFORE_MACRO_LENGTH > length) {
+            return false;
+        }
+        for (int k = 0; k < BEFORE_MACRO.length(); k++) {
+            if (chars[i + k] != BEFORE_MACRO.charAt(k)) {
+                return false;
+            }
+        }
+        return isSpace(chars[i + 7])
+                && isDigit(chars[i + 8]) && isDigit(chars[i + 9])
+                && isSeparator(chars[i + 10])
+                && isDigit(chars[i + 11]) && isDigit(chars[i + 12])
+                && isSeparator(chars[i + 13])
+                && isDigit(chars[i + 14]) && isDigit(chars[i + 15]) && isDigit(chars[i + 16]) && isDigit(chars[i + 17]);
+    }
+
+    // \s в java.util.regex без UNICODE_CHARACTER_CLASS
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '.' || c == '-';
+    }
+}
@@ -18,5 +18,5 @@ public class ToDoListCreate {
     private String description = "";
     private LocalDateTime deadline;
 
-    private Priority priority = Priority.Medium;
+    private Priority priority;
 }
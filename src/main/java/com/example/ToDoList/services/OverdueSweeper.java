@@ -0,0 +1,168 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.OverdueTask;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskDeadline;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.settings.ToDoListDb;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Держит в памяти ближайшие дедлайны активных задач (окно horizon) и переводит
+// задачи в Overdue пакетными UPDATE, как только дедлайн прошел
+@Component
+@RequiredArgsConstructor
+public class OverdueSweeper {
+
+    private static final UUID FIRST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final ToDoListDb toDoListDb;
+    private final ApplicationEventPublisher events;
+    private final TaskWriteFence writeFence;
+
+    @Value("${todolist.overdue.horizon:PT1H}")
+    private Duration horizon;
+
+    @Value("${todolist.overdue.batch-size:500}")
+    private int batchSize;
+
+    private final NavigableSet<TaskDeadline> queue = new ConcurrentSkipListSet<>(TaskDeadline.ORDER);
+    private final Map<UUID, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime loadedUntil;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OverdueTask> changed;
+        do {
+            try (TaskWriteFence.Permit write = writeFence.write()) {
+                changed = toDoListDb.markOverdue(now, batchSize);
+                publishOverdue(changed);
+            }
+        } while (changed.size() == batchSize);
+        refill(now);
+    }
+
+    @Scheduled(fixedDelayString = "${todolist.overdue.tick:PT1S}")
+    public void tick() {
+        if (loadedUntil == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (!now.plus(horizon.dividedBy(2)).isBefore(loadedUntil)) {
+            refill(now);
+        }
+
+        List<TaskDeadline> due = new ArrayList<>();
+        TaskDeadline bound = new TaskDeadline(FIRST_ID, now);
+        for (TaskDeadline head : queue.headSet(bound)) {
+            due.add(head);
+            if (due.size() == batchSize) {
+                sweep(due, now);
+                due = new ArrayList<>();
+            }
+        }
+        if (!due.isEmpty()) {
+            sweep(due, now);
+        }
+    }
+
+    // задачи снимаются с очереди только после успешного UPDATE: если запрос упал, пачка останется
+    // в очереди и повторится на следующем тике
+    private void sweep(List<TaskDeadline> due, LocalDateTime now) {
+        try (TaskWriteFence.Permit write = writeFence.write()) {
+            List<OverdueTask> changed = toDoListDb.markOverdue(due.stream().map(TaskDeadline::id).toList(), now);
+            for (TaskDeadline head : due) {
+                queue.remove(head);
+                scheduled.remove(head.id(), head.deadline());
+            }
+            publishOverdue(changed);
+        }
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        switch (event.type()) {
+            case CREATED, EDITED, STATUS_CHANGED -> {
+                ToDoList task = event.task();
+                if (task.getStatus() == Status.Active) {
+                    schedule(task.getId(), task.getDeadline());
+                } else {
+                    unschedule(task.getId());
+                }
+            }
+            case DELETED -> unschedule(event.id());
+            case BULK_DELETED -> event.ids().forEach(this::unschedule);
+            case BULK_STATUS_CHANGED -> reload();
+            default -> {
+            }
+        }
+    }
+
+    void schedule(UUID id, LocalDateTime deadline) {
+        LocalDateTime until = loadedUntil;
+        if (deadline == null || until == null || deadline.isAfter(until)) {
+            unschedule(id);
+            return;
+        }
+        scheduled.compute(id, (key, previous) -> {
+            if (previous != null) {
+                queue.remove(new TaskDeadline(key, previous));
+            }
+            queue.add(new TaskDeadline(key, deadline));
+            return deadline;
+        });
+    }
+
+    void unschedule(UUID id) {
+        scheduled.computeIfPresent(id, (key, previous) -> {
+            queue.remove(new TaskDeadline(key, previous));
+            return null;
+        });
+    }
+
+    // после массовой смены статуса активными могли стать любые задачи - перечитываем текущее окно;
+    // завершенные задачи остаются в очереди, но UPDATE их уже не тронет
+    private void reload() {
+        LocalDateTime until = loadedUntil;
+        if (until == null) {
+            return;
+        }
+        for (TaskDeadline deadline : toDoListDb.findDeadlines(Status.Active, LocalDateTime.now().minusSeconds(1), until)) {
+            schedule(deadline.id(), deadline.deadline());
+        }
+    }
+
+    private void refill(LocalDateTime now) {
+        LocalDateTime after = loadedUntil != null ? loadedUntil : now.minusSeconds(1);
+        LocalDateTime until = now.plus(horizon);
+        // окно сдвигаем до запроса, чтобы созданные во время загрузки задачи попали в очередь сами
+        loadedUntil = until;
+        for (TaskDeadline deadline : toDoListDb.findDeadlines(Status.Active, after, until)) {
+            schedule(deadline.id(), deadline.deadline());
+        }
+    }
+
+    private void publishOverdue(List<OverdueTask> tasks) {
+        for (OverdueTask task : tasks) {
+            events.publishEvent(TaskEvent.overdue(task));
+        }
+    }
+}
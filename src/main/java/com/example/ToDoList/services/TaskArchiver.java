@@ -0,0 +1,54 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.settings.TaskArchiveDb;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Переносит задачи в статусах Completed и Late, не менявшиеся дольше age, из todolist в todolist_archive.
+// Каждая пачка - отдельная короткая транзакция, поэтому первый запуск на большой таблице не держит блокировки
+// и не раздувает журнал. В основной таблице остаются только "горячие" задачи
+@Component
+@RequiredArgsConstructor
+public class TaskArchiver {
+
+    private final TaskArchiveDb taskArchiveDb;
+    private final ApplicationEventPublisher events;
+    private final TaskWriteFence writeFence;
+
+    @Value("${todolist.archive.age:P7D}")
+    private Duration age;
+
+    @Value("${todolist.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${todolist.archive.tick:PT1H}", fixedDelayString = "${todolist.archive.tick:PT1H}")
+    public void tick() {
+        archive();
+    }
+
+    public long archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime finishedBefore = now.minus(age);
+        long archived = 0;
+        List<UUID> moved;
+        do {
+            try (TaskWriteFence.Permit write = writeFence.write()) {
+                moved = taskArchiveDb.archive(finishedBefore, batchSize, now);
+                if (!moved.isEmpty()) {
+                    events.publishEvent(TaskEvent.archived(moved));
+                }
+            }
+            archived += moved.size();
+        } while (moved.size() == batchSize);
+        return archived;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.models.TaskDetails;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.settings.ToDoListDb;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Read-through кэш для getSpecificTask, хранит неизменяемые TaskDetails, а не сущности.
+// Любое изменение задачи удаляет ее из кэша; если в этот момент задача как раз загружается,
+// Caffeine дождется загрузки и удалит уже загруженное значение.
+@Component
+public class TaskCache {
+
+    private final ToDoListDb toDoListDb;
+    private final Cache<UUID, TaskDetails> cache;
+
+    public TaskCache(ToDoListDb toDoListDb,
+                     MeterRegistry registry,
+                     @Value("${todolist.cache.max-size:10000}") long maxSize,
+                     @Value("${todolist.cache.ttl:PT1M}") Duration ttl) {
+        this.toDoListDb = toDoListDb;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "tasks");
+    }
+
+    public TaskDetails get(UUID id) {
+        return cache.get(id, key -> toDoListDb.findDetailsById(key).orElse(null));
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        switch (event.type()) {
+            case EDITED, STATUS_CHANGED, DELETED, OVERDUE -> cache.invalidate(event.id());
+            case BULK_STATUS_CHANGED, BULK_DELETED, ARCHIVED -> cache.invalidateAll(event.ids());
+            default -> {
+            }
+        }
+    }
+}
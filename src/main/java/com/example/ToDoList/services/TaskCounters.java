@@ -0,0 +1,155 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCount;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskStats;
+import com.example.ToDoList.settings.ToDoListDb;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Счетчики задач по статусу и приоритету для /taskStats. Обновляются по TaskEvent, чтение не зависит
+// от числа задач. Массовые операции не несут прежнего состояния строк, поэтому после них, а также
+// раз в todolist.stats.reconcile, счетчики сверяются с GROUP BY по таблице. Сверка идет под
+// исключительным пропуском TaskWriteFence, и записи на это время ждут.
+@Component
+@RequiredArgsConstructor
+public class TaskCounters {
+
+    private static final Status[] STATUSES = Status.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    // отдельная ячейка для строк без приоритета
+    private static final int NO_PRIORITY = PRIORITIES.length;
+
+    private final ToDoListDb toDoListDb;
+    private final TaskWriteFence writeFence;
+
+    @Value("${todolist.stats.reconcile:PT5M}")
+    private Duration reconcileInterval;
+
+    private final LongAdder[][] counters = adders();
+
+    private volatile boolean dirty = true;
+    private volatile boolean ready;
+    private volatile long reconciledAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${todolist.stats.tick:PT1S}")
+    public void tick() {
+        if (dirty || System.nanoTime() - reconciledAt >= reconcileInterval.toNanos()) {
+            reconcile();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.task().getStatus(), event.task().getPriority(), 1);
+            case EDITED, STATUS_CHANGED -> {
+                if (event.previousStatus() == null) {
+                    dirty = true;
+                    return;
+                }
+                add(event.previousStatus(), event.previousPriority(), -1);
+                add(event.task().getStatus(), event.task().getPriority(), 1);
+            }
+            case DELETED -> add(event.previousStatus(), event.previousPriority(), -1);
+            case OVERDUE -> {
+                add(Status.Active, event.previousPriority(), -1);
+                add(Status.Overdue, event.previousPriority(), 1);
+            }
+            case BULK_STATUS_CHANGED, BULK_DELETED, ARCHIVED -> dirty = true;
+            default -> {
+            }
+        }
+    }
+
+    public TaskStats stats() {
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        Map<Status, Map<Priority, Long>> byStatusAndPriority = new EnumMap<>(Status.class);
+        long total = 0;
+
+        for (Status status : STATUSES) {
+            Map<Priority, Long> row = new EnumMap<>(Priority.class);
+            long statusTotal = 0;
+            for (int p = 0; p <= NO_PRIORITY; p++) {
+                long count = counters[status.ordinal()][p].sum();
+                statusTotal += count;
+                if (p < NO_PRIORITY) {
+                    row.put(PRIORITIES[p], count);
+                    byPriority.merge(PRIORITIES[p], count, Long::sum);
+                }
+            }
+            byStatus.put(status, statusTotal);
+            byStatusAndPriority.put(status, row);
+            total += statusTotal;
+        }
+        return new TaskStats(total, byStatus.get(Status.Overdue), byStatus, byPriority, byStatusAndPriority);
+    }
+
+    // Пока взят исключительный пропуск, ни одна запись не находится между коммитом и публикацией события,
+    // поэтому GROUP BY - точное состояние, которое счетчики должны отражать, и его можно записать поверх.
+    // Ячейки доводятся добавлением разницы, а не reset(), чтобы /taskStats не видел промежуточных нулей
+    synchronized void reconcile() {
+        try (TaskWriteFence.Permit quiet = writeFence.quiesce()) {
+            long[][] actual = new long[STATUSES.length][NO_PRIORITY + 1];
+            for (TaskCount count : toDoListDb.countByStatusAndPriority()) {
+                actual[count.status().ordinal()][index(count.priority())] = count.count();
+            }
+            for (int s = 0; s < STATUSES.length; s++) {
+                for (int p = 0; p <= NO_PRIORITY; p++) {
+                    long drift = actual[s][p] - counters[s][p].sum();
+                    if (drift != 0) {
+                        counters[s][p].add(drift);
+                    }
+                }
+            }
+            // флаг снимается внутри пропуска: массовые операции до него уже учтены запросом, а новые
+            // опубликуют событие только после сверки и выставят его снова
+            dirty = false;
+        }
+        ready = true;
+        reconciledAt = System.nanoTime();
+    }
+
+    private void add(Status status, Priority priority, int delta) {
+        if (status == null) {
+            dirty = true;
+            return;
+        }
+        counters[status.ordinal()][index(priority)].add(delta);
+    }
+
+    private static int index(Priority priority) {
+        return priority == null ? NO_PRIORITY : priority.ordinal();
+    }
+
+    private static LongAdder[][] adders() {
+        LongAdder[][] adders = new LongAdder[STATUSES.length][NO_PRIORITY + 1];
+        for (LongAdder[] row : adders) {
+            for (int p = 0; p < row.length; p++) {
+                row[p] = new LongAdder();
+            }
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ExportFormat;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCsv;
+import com.example.ToDoList.settings.ToDoListDb;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Пишет задачи в поток по одной строке, не собирая список в памяти
+@Component
+@RequiredArgsConstructor
+public class TaskExporter {
+
+    private final ToDoListDb toDoListDb;
+    private final ObjectMapper objectMapper;
+
+    public void export(ExportFormat format, Status status, Priority priority, OutputStream out) throws IOException {
+        try {
+            if (format == ExportFormat.CSV) {
+                writeCsv(status, priority, out);
+            } else {
+                writeNdjson(status, priority, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Status status, Priority priority, OutputStream out) throws IOException {
+        long written;
+        try (SequenceWriter writer = objectMapper.writerFor(ToDoList.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            written = toDoListDb.forEachTask(status, priority, task -> {
+                try {
+                    writer.write(task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        // пустая выгрузка - пустое тело, а не одна пустая строка
+        if (written > 0) {
+            out.write('\n');
+        }
+    }
+
+    private void writeCsv(Status status, Priority priority, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(TaskCsv.HEADER);
+        writer.write('\n');
+        toDoListDb.forEachTask(status, priority, task -> {
+            try {
+                TaskCsv.write(writer, task);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskEventType;
+import com.example.ToDoList.models.TaskFeedItem;
+import com.example.ToDoList.models.TaskSummary;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Лента изменений для /taskEvents. События получают сквозной номер и пишутся в кольцевой буфер;
+// у каждого подписчика свой виртуальный поток, который читает буфер со своей позиции. Медленный
+// клиент не задерживает запись, а отставший больше чем на размер буфера получает RESET и перечитывает список.
+// id события - "<epoch>-<номер>": epoch меняется при каждом запуске, поэтому Last-Event-ID из прошлого
+// запуска всегда дает RESET, даже когда новый счетчик уже обогнал старый номер.
+@Component
+public class TaskFeed {
+
+    public static final String RESET = "RESET";
+    public static final String REMOVED = "REMOVED";
+
+    // priority - приоритет задачи: из task, а у OVERDUE, где task нет, из previousPriority события
+    private record Entry(long seq, TaskEventType type, UUID id, TaskSummary task, Priority priority, List<UUID> ids) {
+    }
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+    private final Entry[] ring;
+    private final long heartbeatNanos;
+    private final long timeoutMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final ExecutorService dispatchers = Executors.newVirtualThreadPerTaskExecutor();
+    private long head;
+
+    public TaskFeed(@Value("${todolist.feed.buffer-size:4096}") int bufferSize,
+                    @Value("${todolist.feed.heartbeat:PT15S}") Duration heartbeat,
+                    @Value("${todolist.feed.timeout:PT30M}") Duration timeout) {
+        this.ring = new Entry[bufferSize];
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchers.shutdownNow();
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        TaskSummary task = event.task() != null ? TaskSummary.of(event.task()) : null;
+        Priority priority = task != null ? task.priority() : event.previousPriority();
+        lock.lock();
+        try {
+            head++;
+            ring[(int) (head % ring.length)] = new Entry(head, event.type(), event.id(), task, priority, event.ids());
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SseEmitter subscribe(Status status, Priority priority, String lastEventId) {
+        // позиция без Last-Event-ID фиксируется здесь, а не в потоке подписчика: события между ответом
+        // на подписку и его запуском иначе пропали бы
+        Long after = position(lastEventId);
+        long next = after != null ? after + 1 : currentHead() + 1;
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AtomicBoolean closed = new AtomicBoolean();
+        Runnable close = () -> {
+            closed.set(true);
+            lock.lock();
+            try {
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(error -> close.run());
+
+        dispatchers.execute(() -> dispatch(emitter, closed, status, priority, next));
+        return emitter;
+    }
+
+    private void dispatch(SseEmitter emitter, AtomicBoolean closed, Status status, Priority priority, long next) {
+        try {
+            while (!closed.get()) {
+                List<Entry> batch = new ArrayList<>();
+                long reset = -1;
+
+                lock.lock();
+                try {
+                    long nanos = heartbeatNanos;
+                    while (next > head && nanos > 0 && !closed.get()) {
+                        nanos = appended.awaitNanos(nanos);
+                    }
+                    long oldest = Math.max(1, head - ring.length + 1);
+                    // события вытеснены из буфера, id прошлого запуска или номер из будущего
+                    if (next < oldest || next > head + 1) {
+                        reset = head;
+                        next = head + 1;
+                    }
+                    for (; next <= head; next++) {
+                        batch.add(ring[(int) (next % ring.length)]);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                if (reset >= 0) {
+                    emitter.send(SseEmitter.event().id(eventId(reset)).name(RESET).data(""));
+                }
+                if (batch.isEmpty() && reset < 0) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (Entry entry : batch) {
+                    send(emitter, entry, status, priority);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // клиент отключился или emitter уже завершен
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    private void send(SseEmitter emitter, Entry entry, Status status, Priority priority) throws IOException {
+        String name = entry.type().name();
+        TaskFeedItem item = new TaskFeedItem(entry.id(), entry.task(), entry.ids());
+
+        if (status != null || priority != null) {
+            switch (entry.type()) {
+                case CREATED, DELETED -> {
+                    if (!matches(entry.task(), status, priority)) {
+                        return;
+                    }
+                }
+                // прежнее состояние неизвестно: задача могла быть в выборке клиента и выйти из нее
+                case EDITED, STATUS_CHANGED -> {
+                    if (!matches(entry.task(), status, priority)) {
+                        name = REMOVED;
+                        item = new TaskFeedItem(entry.id(), null, null);
+                    }
+                }
+                // была Active, стала Overdue; приоритет при этом не меняется, и задачи чужого приоритета
+                // в выборке клиента не было ни до, ни после
+                case OVERDUE -> {
+                    if (priority != null && entry.priority() != priority) {
+                        return;
+                    }
+                    if (status != null && status != Status.Overdue) {
+                        name = REMOVED;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        emitter.send(SseEmitter.event()
+                .id(eventId(entry.seq()))
+                .name(name)
+                .data(item, MediaType.APPLICATION_JSON));
+    }
+
+    private static boolean matches(TaskSummary task, Status status, Priority priority) {
+        return (status == null || task.status() == status) && (priority == null || task.priority() == priority);
+    }
+
+    // номер из Last-Event-ID: null - подписка с текущего места; id другого запуска или без epoch дает -1,
+    // такая позиция всегда раньше начала буфера, и подписка начнется с RESET
+    private Long position(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        String value = lastEventId.trim();
+        int dash = value.lastIndexOf('-');
+        if (dash < 0 || !value.substring(0, dash).equals(epoch)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный Last-Event-ID");
+        }
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private long currentHead() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.settings.TaskMetrics;
+import com.example.ToDoList.settings.ToDoListDb;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Групповая запись для taskCreate (todolist.create.group-commit.enabled=true). Проверенные задачи встают
+// в ограниченную очередь, единственный поток-писатель забирает их пачками до max-batch строк или max-delay
+// ожидания и вставляет одной транзакцией. create() возвращается только после коммита своей пачки, поэтому
+// подтвержденное создание так же надежно, как отдельная транзакция, а коммитов при всплеске в разы меньше.
+// Проверка running и постановка в очередь идут под одной блокировкой с остановкой: после shutdown() ни одна
+// задача не попадет в очередь, которую писатель уже не дочитает.
+@Component
+public class TaskGroupCommit {
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private record Pending(ToDoList task, CompletableFuture<ToDoList> done) {
+    }
+
+    private final ToDoListDb toDoListDb;
+    private final TaskMetrics taskMetrics;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<Pending> queue;
+    private final ReentrantLock accepting = new ReentrantLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public TaskGroupCommit(ToDoListDb toDoListDb,
+                           TaskMetrics taskMetrics,
+                           @Value("${todolist.create.group-commit.enabled:false}") boolean enabled,
+                           @Value("${todolist.create.group-commit.max-batch:200}") int maxBatch,
+                           @Value("${todolist.create.group-commit.max-delay:PT0.005S}") Duration maxDelay,
+                           @Value("${todolist.create.group-commit.queue-size:10000}") int queueSize,
+                           @Value("${todolist.create.group-commit.timeout:PT10S}") Duration timeout) {
+        this.toDoListDb = toDoListDb;
+        this.taskMetrics = taskMetrics;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("task-group-commit").start(this::run);
+    }
+
+    // писатель не прерывается: он дописывает все, что уже принято в очередь, и только потом завершается
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopAccepting();
+        if (writer != null) {
+            writer.join();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ToDoList create(ToDoList task) throws InterruptedException {
+        Pending pending = new Pending(task, new CompletableFuture<>());
+        accepting.lock();
+        try {
+            if (!running || !queue.offer(pending)) {
+                throw new RejectedExecutionException("Очередь записи заданий переполнена, повторите запрос позже");
+            }
+        } finally {
+            accepting.unlock();
+        }
+        try {
+            return pending.done().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException error ? error : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // задача еще в очереди - ее можно снять, и запись точно не произойдет; иначе пачка уже пишется
+            if (queue.remove(pending)) {
+                throw new RejectedExecutionException("Очередь записи заданий не успела обработать запрос, повторите запрос позже");
+            }
+            throw new IllegalStateException("Запись задания не подтверждена за отведенное время");
+        }
+    }
+
+    private void stopAccepting() {
+        accepting.lock();
+        try {
+            running = false;
+        } finally {
+            accepting.unlock();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                // сначала забирается все, что уже накопилось; ждать имеет смысл, только пока очередь пуста
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    Pending next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopAccepting();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        // после stopAccepting() очередь не пополняется; если писатель все же выходит с задачами, их вызовы
+        // получают отказ, а не ждут ответа, которого не будет
+        for (Pending pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.done().completeExceptionally(new RejectedExecutionException("Групповая запись остановлена"));
+        }
+    }
+
+    // пачка коммитится целиком или никак: при любой ошибке, включая Error, каждый ее вызов получает исключение
+    private void flush(List<Pending> batch) {
+        List<ToDoList> tasks = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            tasks.add(pending.task());
+        }
+        try {
+            toDoListDb.insertBatch(tasks);
+            taskMetrics.recordCreateBatch(tasks.size());
+            for (Pending pending : batch) {
+                pending.done().complete(pending.task());
+            }
+        } catch (Throwable error) {
+            for (Pending pending : batch) {
+                pending.done().completeExceptionally(error);
+            }
+        }
+    }
+}
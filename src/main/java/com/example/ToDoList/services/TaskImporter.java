@@ -0,0 +1,213 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ExportFormat;
+import com.example.ToDoList.models.ImportReport;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.TaskCsv;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskFactory;
+import com.example.ToDoList.models.ToDoListCreate;
+import com.example.ToDoList.settings.ToDoListDb;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Потоковый импорт: текущий поток разбирает и проверяет записи, отдельный поток пишет готовые пачки
+// в базу. Между ними очередь на две пачки, поэтому разбор следующей пачки идет параллельно со вставкой.
+@Component
+@RequiredArgsConstructor
+public class TaskImporter {
+
+    private static final List<ToDoList> END = List.of();
+
+    private final ToDoListDb toDoListDb;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final TaskWriteFence writeFence;
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${todolist.import.chunk-size:500}")
+    private int chunkSize;
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    public void importTasks(ExportFormat format, InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        BlockingQueue<List<ToDoList>> chunks = new ArrayBlockingQueue<>(2);
+        Queue<Long> committed = new ConcurrentLinkedQueue<>();
+        AtomicLong inserted = new AtomicLong();
+        long rejected = 0;
+
+        Future<?> writer = writers.submit(() -> {
+            try {
+                for (List<ToDoList> chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                    try (TaskWriteFence.Permit write = writeFence.write()) {
+                        toDoListDb.insertBatch(chunk);
+                        chunk.forEach(task -> events.publishEvent(TaskEvent.created(task)));
+                    }
+                    committed.add(inserted.addAndGet(chunk.size()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        try {
+            RecordSource source = format == ExportFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+            List<ToDoList> chunk = new ArrayList<>(chunkSize);
+            long number = 0;
+            while (true) {
+                number++;
+                try {
+                    ToDoListCreate item = source.next();
+                    if (item == null) {
+                        break;
+                    }
+                    chunk.add(TaskFactory.create(item.getTitle(), item.getDescription(), item.getDeadline(), item.getPriority()));
+                } catch (IllegalArgumentException | JsonProcessingException error) {
+                    rejected++;
+                    write(out, ImportReport.rejected(number, error.getMessage()));
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    hand(chunks, chunk, writer);
+                    chunk = new ArrayList<>(chunkSize);
+                    flushProgress(out, committed, rejected);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                hand(chunks, chunk, writer);
+            }
+            hand(chunks, END, writer);
+            writer.get();
+            flushProgress(out, committed, rejected);
+            write(out, ImportReport.done(inserted.get(), rejected));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            write(out, ImportReport.failed("Импорт прерван", inserted.get(), rejected));
+        } catch (ExecutionException e) {
+            flushProgress(out, committed, rejected);
+            write(out, ImportReport.failed("Ошибка: " + e.getCause().getMessage(), inserted.get(), rejected));
+        } catch (IllegalArgumentException e) {
+            write(out, ImportReport.failed("Ошибка: " + e.getMessage(), inserted.get(), rejected));
+        } finally {
+            writer.cancel(true);
+        }
+    }
+
+    // отдаем пачку писателю; если он упал, не ждем место в очереди вечно
+    private void hand(BlockingQueue<List<ToDoList>> chunks, List<ToDoList> chunk, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new ExecutionException(new IllegalStateException("Запись остановлена"));
+            }
+        }
+    }
+
+    private void flushProgress(OutputStream out, Queue<Long> committed, long rejected) throws IOException {
+        for (Long inserted = committed.poll(); inserted != null; inserted = committed.poll()) {
+            write(out, ImportReport.progress(inserted, rejected));
+        }
+        out.flush();
+    }
+
+    private void write(OutputStream out, ImportReport report) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(report));
+        out.write('\n');
+    }
+
+    private interface RecordSource {
+        ToDoListCreate next() throws IOException;
+    }
+
+    private RecordSource ndjsonSource(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line == null ? null : objectMapper.readValue(line, ToDoListCreate.class);
+        };
+    }
+
+    // колонки берутся по заголовку, поэтому подходит и файл из /taskExport
+    private RecordSource csvSource(BufferedReader reader) throws IOException {
+        List<String> header = TaskCsv.read(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        int title = header.indexOf("title");
+        int description = header.indexOf("description");
+        int deadline = header.indexOf("deadline");
+        int priority = header.indexOf("priority");
+        if (title < 0) {
+            throw new IllegalArgumentException("В заголовке CSV нет колонки title");
+        }
+        return () -> {
+            // пустые строки, в том числе перевод строки в конце файла, записями не считаются - как в NDJSON
+            List<String> fields;
+            do {
+                fields = TaskCsv.read(reader);
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            ToDoListCreate item = new ToDoListCreate();
+            item.setTitle(column(fields, title));
+            item.setDescription(column(fields, description));
+            String deadlineText = column(fields, deadline);
+            String priorityText = column(fields, priority);
+            try {
+                item.setDeadline(deadlineText == null ? null : LocalDateTime.parse(deadlineText));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Неверный формат дедлайна");
+            }
+            try {
+                item.setPriority(priorityText == null ? null : Priority.valueOf(priorityText));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неверный приоритет");
+            }
+            return item;
+        };
+    }
+
+    private static String column(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+}
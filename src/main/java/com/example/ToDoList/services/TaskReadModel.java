@@ -0,0 +1,330 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.models.ChangedStatus;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskListVersion;
+import com.example.ToDoList.models.TaskSummary;
+import com.example.ToDoList.settings.ToDoListDb;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Необязательная модель чтения для /taskList (todolist.read-model.enabled=true): все задачи в памяти,
+// разложены по корзинам статус × приоритет. Внутри корзины строки упорядочены по (createDate, id),
+// порядок по приоритету получается обходом корзин по рангу. Страница собирается слиянием нескольких
+// корзин начиная с курсора, поэтому копируются только строки страницы, а не весь список.
+// Строится при старте одним проходом по таблице и дальше обновляется по TaskEvent.
+// События приходят в порядке публикации, а не коммита: правка, закоммиченная до удаления, может
+// опубликоваться после него. Поэтому удаленные id помнятся todolist.read-model.tombstone-ttl,
+// и put со старшим updateDate не возвращает строку в модель.
+@Component
+public class TaskReadModel {
+
+    private static final Status[] STATUSES = Status.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+    // слот 0 - задачи без приоритета: их ранг -1, как в TaskCursor.rank(), остальные - ordinal + 1
+    private static final int SLOTS = PRIORITIES.length + 1;
+
+    // H2 сравнивает UUID как беззнаковые числа, здесь так же, чтобы порядок совпадал с SQL
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Comparator<TaskSummary> CREATED = Comparator
+            .comparing(TaskSummary::createDate)
+            .thenComparing(TaskSummary::id, ID_ORDER);
+
+    private static final Comparator<TaskSummary> CREATED_DESC = CREATED.reversed();
+
+    private static final class Bucket {
+        private final TreeSet<TaskSummary> tasks = new TreeSet<>(CREATED);
+        private LocalDateTime lastUpdate;
+
+        private void touch(LocalDateTime time) {
+            if (time != null && (lastUpdate == null || time.isAfter(lastUpdate))) {
+                lastUpdate = time;
+            }
+        }
+    }
+
+    private final ToDoListDb toDoListDb;
+    private final boolean enabled;
+    private final Duration tombstoneTtl;
+
+    private final Bucket[][] buckets = new Bucket[STATUSES.length][SLOTS];
+    private final Map<UUID, TaskSummary> tasks = new HashMap<>();
+    // id -> время удаления в порядке удаления, поэтому устаревшие надгробия снимаются с головы
+    private final LinkedHashMap<UUID, LocalDateTime> tombstones = new LinkedHashMap<>();
+    // смены статуса во время построения: строка могла быть прочитана проходом раньше, чем ее изменили
+    private final Map<UUID, ChangedStatus> changedWhileBuilding = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean building = true;
+    private volatile boolean ready;
+
+    public TaskReadModel(ToDoListDb toDoListDb,
+                         @Value("${todolist.read-model.enabled:false}") boolean enabled,
+                         @Value("${todolist.read-model.tombstone-ttl:PT1M}") Duration tombstoneTtl) {
+        this.toDoListDb = toDoListDb;
+        this.enabled = enabled;
+        this.tombstoneTtl = tombstoneTtl;
+        for (Bucket[] row : buckets) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                row[slot] = new Bucket();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        toDoListDb.forEachTask(null, null, task -> put(TaskSummary.of(task)));
+        lock.writeLock().lock();
+        try {
+            changedWhileBuilding.values().forEach(this::setStatus);
+            changedWhileBuilding.clear();
+            building = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, EDITED, STATUS_CHANGED -> put(TaskSummary.of(event.task()));
+            case DELETED -> delete(List.of(event.id()));
+            case BULK_DELETED, ARCHIVED -> delete(event.ids());
+            case OVERDUE -> changeStatus(List.of(new ChangedStatus(event.id(), Status.Overdue, LocalDateTime.now())));
+            case BULK_STATUS_CHANGED -> changeStatus(event.statuses());
+            default -> {
+            }
+        }
+    }
+
+    // аналог listVersion(): число строк и время последнего изменения выбранных корзин
+    public TaskListVersion version(Status status, Priority priority) {
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            LocalDateTime lastUpdate = null;
+            for (Status s : STATUSES) {
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    if (selected(s, slot, status, priority)) {
+                        Bucket bucket = buckets[s.ordinal()][slot];
+                        count += bucket.tasks.size();
+                        if (bucket.lastUpdate != null && (lastUpdate == null || bucket.lastUpdate.isAfter(lastUpdate))) {
+                            lastUpdate = bucket.lastUpdate;
+                        }
+                    }
+                }
+            }
+            return new TaskListVersion(count, lastUpdate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<TaskSummary> list(Status status, Priority priority, TaskCursor.Mode mode) {
+        return page(status, priority, mode, null, Integer.MAX_VALUE);
+    }
+
+    // тот же порядок и то же keyset-условие, что у order() и after() в ToDoListDbCustomImpl
+    public List<TaskSummary> page(Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            List<TaskSummary> page = new ArrayList<>(Math.min(limit, tasks.size()));
+            TaskSummary from = after != null ? probe(after) : null;
+
+            if (!mode.byPriority()) {
+                merge(status, priority, 0, SLOTS, from, mode == TaskCursor.Mode.CREATED_DESC, limit, page);
+                return page;
+            }
+
+            for (int i = 0; i < SLOTS && page.size() < limit; i++) {
+                int slot = mode == TaskCursor.Mode.PRIORITY_ASC ? i : SLOTS - 1 - i;
+                int rank = slot - 1;
+                if (after != null && (mode == TaskCursor.Mode.PRIORITY_ASC ? rank < after.rank() : rank > after.rank())) {
+                    continue;
+                }
+                merge(status, priority, slot, slot + 1, after != null && rank == after.rank() ? from : null,
+                        false, limit, page);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // k-way слияние выбранных корзин (их не больше STATUSES × SLOTS), без промежуточных коллекций
+    @SuppressWarnings("unchecked")
+    private void merge(Status status, Priority priority, int fromSlot, int toSlot, TaskSummary from,
+                       boolean descending, int limit, List<TaskSummary> page) {
+        Iterator<TaskSummary>[] iterators = new Iterator[STATUSES.length * (toSlot - fromSlot)];
+        TaskSummary[] heads = new TaskSummary[iterators.length];
+        int count = 0;
+        for (Status s : STATUSES) {
+            for (int slot = fromSlot; slot < toSlot; slot++) {
+                if (!selected(s, slot, status, priority)) {
+                    continue;
+                }
+                NavigableSet<TaskSummary> view = buckets[s.ordinal()][slot].tasks;
+                if (from != null) {
+                    view = descending ? view.headSet(from, false) : view.tailSet(from, false);
+                }
+                Iterator<TaskSummary> iterator = descending ? view.descendingIterator() : view.iterator();
+                if (iterator.hasNext()) {
+                    iterators[count] = iterator;
+                    heads[count] = iterator.next();
+                    count++;
+                }
+            }
+        }
+
+        Comparator<TaskSummary> order = descending ? CREATED_DESC : CREATED;
+        while (count > 0 && page.size() < limit) {
+            int best = 0;
+            for (int i = 1; i < count; i++) {
+                if (order.compare(heads[i], heads[best]) < 0) {
+                    best = i;
+                }
+            }
+            page.add(heads[best]);
+            if (iterators[best].hasNext()) {
+                heads[best] = iterators[best].next();
+            } else {
+                count--;
+                iterators[best] = iterators[count];
+                heads[best] = heads[count];
+            }
+        }
+    }
+
+    private void put(TaskSummary task) {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime deleted = tombstones.get(task.id());
+            if (deleted != null && !task.updateDate().isAfter(deleted)) {
+                return;
+            }
+            TaskSummary previous = tasks.get(task.id());
+            // при первичном построении строка из базы может оказаться старше уже примененного события
+            if (previous != null && task.updateDate().isBefore(previous.updateDate())) {
+                return;
+            }
+            if (previous != null) {
+                bucket(previous).tasks.remove(previous);
+            }
+            tasks.put(task.id(), task);
+            Bucket bucket = bucket(task);
+            bucket.tasks.add(task);
+            bucket.touch(task.updateDate());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(List<UUID> ids) {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // пока идет первичный проход, надгробия не снимаются: он может прочитать строку сколь угодно раньше
+            if (!building) {
+                LocalDateTime expired = now.minus(tombstoneTtl);
+                Iterator<LocalDateTime> oldest = tombstones.values().iterator();
+                while (oldest.hasNext() && oldest.next().isBefore(expired)) {
+                    oldest.remove();
+                }
+            }
+            for (UUID id : ids) {
+                remove(id);
+                tombstones.put(id, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // статус меняется на месте, без чтения задач из базы; во время построения изменение запоминается
+    // и повторяется в конце, потому что проход мог еще не дойти до строки или прочитать ее до изменения
+    private void changeStatus(List<ChangedStatus> changes) {
+        lock.writeLock().lock();
+        try {
+            for (ChangedStatus change : changes) {
+                setStatus(change);
+                if (building) {
+                    changedWhileBuilding.put(change.id(), change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setStatus(ChangedStatus change) {
+        TaskSummary previous = tasks.get(change.id());
+        if (previous == null || previous.updateDate().isAfter(change.updateDate())) {
+            return;
+        }
+        bucket(previous).tasks.remove(previous);
+        TaskSummary task = new TaskSummary(previous.id(), previous.title(), previous.deadline(), change.status(),
+                previous.priority(), previous.createDate(), change.updateDate());
+        tasks.put(task.id(), task);
+        Bucket bucket = bucket(task);
+        bucket.tasks.add(task);
+        bucket.touch(task.updateDate());
+    }
+
+    // у удаления нет своего updateDate: время удаления сдвигает версию корзины, как сдвинул бы count
+    private void remove(UUID id) {
+        TaskSummary previous = tasks.remove(id);
+        if (previous != null) {
+            Bucket bucket = bucket(previous);
+            bucket.tasks.remove(previous);
+            bucket.touch(LocalDateTime.now());
+        }
+    }
+
+    private Bucket bucket(TaskSummary task) {
+        return buckets[task.status().ordinal()][slot(task.priority())];
+    }
+
+    private static int slot(Priority priority) {
+        return priority == null ? 0 : priority.ordinal() + 1;
+    }
+
+    private static boolean selected(Status s, int slot, Status status, Priority priority) {
+        return (status == null || s == status) && (priority == null || slot == slot(priority));
+    }
+
+    private static TaskSummary probe(TaskCursor cursor) {
+        return new TaskSummary(cursor.id(), null, null, null, null, cursor.createDate(), null);
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.ToDoList.services;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ChangedStatus;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskSearchHit;
+import com.example.ToDoList.models.TaskSearchResult;
+import com.example.ToDoList.models.TaskSummary;
+import com.example.ToDoList.models.TaskTokenizer;
+import com.example.ToDoList.settings.ToDoListDb;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Обратный индекс по названию и описанию задач. Строится при старте одним проходом по таблице
+// и дальше обновляется по TaskEvent. Каждое слово запроса ищется как префикс, задача должна
+// содержать все слова. Кандидаты берутся из самого редкого слова запроса, поэтому время поиска
+// зависит от размера списков вхождений, а не от числа задач.
+// Удаленные id помнятся todolist.search.tombstone-ttl, как в TaskReadModel: правка, опубликованная
+// позже удаления, не должна вернуть задачу в индекс.
+@Component
+@RequiredArgsConstructor
+public class TaskSearchIndex {
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    private record Doc(Status status, Priority priority, LocalDateTime createDate, LocalDateTime updateDate,
+                       TreeMap<String, Integer> terms) {
+    }
+
+    private record Scored(UUID id, double score, LocalDateTime createDate) {
+    }
+
+    private static final Comparator<Scored> RANK = Comparator
+            .comparingDouble(Scored::score).reversed()
+            .thenComparing(Scored::createDate, Comparator.reverseOrder())
+            .thenComparing(Scored::id);
+
+    private final ToDoListDb toDoListDb;
+
+    @Value("${todolist.search.tombstone-ttl:PT1M}")
+    private Duration tombstoneTtl;
+
+    private final TreeMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+    private final Map<UUID, Doc> docs = new HashMap<>();
+    // id -> время удаления в порядке удаления
+    private final LinkedHashMap<UUID, LocalDateTime> tombstones = new LinkedHashMap<>();
+    // смены статуса во время построения: строка могла быть прочитана проходом раньше, чем ее изменили
+    private final Map<UUID, ChangedStatus> changedWhileBuilding = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean building = true;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        toDoListDb.forEachTask(null, null, this::put);
+        lock.writeLock().lock();
+        try {
+            changedWhileBuilding.values().forEach(this::setStatus);
+            changedWhileBuilding.clear();
+            building = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        switch (event.type()) {
+            case CREATED, EDITED, STATUS_CHANGED -> put(event.task());
+            case DELETED -> delete(List.of(event.id()));
+            case BULK_DELETED, ARCHIVED -> delete(event.ids());
+            case OVERDUE -> changeStatus(List.of(new ChangedStatus(event.id(), Status.Overdue, LocalDateTime.now())));
+            case BULK_STATUS_CHANGED -> changeStatus(event.statuses());
+            default -> {
+            }
+        }
+    }
+
+    public TaskSearchResult search(String query, Status status, Priority priority, int offset, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(TaskTokenizer.tokenize(query));
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Пустой поисковый запрос");
+        }
+
+        List<Scored> page;
+        int total;
+        lock.readLock().lock();
+        try {
+            // самое редкое слово дает кандидатов, остальные проверяются по словам самой задачи
+            List<String> ordered = tokens.stream()
+                    .sorted(Comparator.comparingLong(this::frequency))
+                    .toList();
+
+            Map<UUID, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Map<UUID, Integer>> term : matching(postings, ordered.get(0)).entrySet()) {
+                double idf = idf(term.getKey());
+                double weight = term.getKey().equals(ordered.get(0)) ? 1 : PREFIX_WEIGHT;
+                for (Map.Entry<UUID, Integer> posting : term.getValue().entrySet()) {
+                    Doc doc = docs.get(posting.getKey());
+                    if (matches(doc, status, priority)) {
+                        scores.merge(posting.getKey(), posting.getValue() * idf * weight, Double::sum);
+                    }
+                }
+            }
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(RANK.reversed());
+            total = 0;
+            for (Map.Entry<UUID, Double> candidate : scores.entrySet()) {
+                Doc doc = docs.get(candidate.getKey());
+                double score = candidate.getValue();
+                for (int i = 1; i < ordered.size() && score > 0; i++) {
+                    double part = score(doc, ordered.get(i));
+                    score = part > 0 ? score + part : 0;
+                }
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                top.add(new Scored(candidate.getKey(), score, doc.createDate()));
+                if (top.size() > offset + limit) {
+                    top.poll();
+                }
+            }
+
+            page = new ArrayList<>(top);
+            page.sort(RANK);
+            page = page.subList(Math.min(offset, page.size()), page.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (page.isEmpty()) {
+            return new TaskSearchResult(total, List.of());
+        }
+        // строки страницы читаются проекцией одним запросом; удаленные за это время пропускаются
+        Map<UUID, TaskSummary> summaries = toDoListDb.findSummaries(page.stream().map(Scored::id).toList()).stream()
+                .collect(Collectors.toMap(TaskSummary::id, Function.identity()));
+        List<TaskSearchHit> hits = new ArrayList<>(page.size());
+        for (Scored scored : page) {
+            TaskSummary summary = summaries.get(scored.id());
+            if (summary != null) {
+                hits.add(new TaskSearchHit(summary, scored.score()));
+            }
+        }
+        return new TaskSearchResult(total, hits);
+    }
+
+    private void put(ToDoList task) {
+        TreeMap<String, Integer> terms = new TreeMap<>();
+        TaskTokenizer.tokenize(task.getTitle()).forEach(term -> terms.merge(term, TITLE_WEIGHT, Integer::sum));
+        TaskTokenizer.tokenize(task.getDescription()).forEach(term -> terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        Doc doc = new Doc(task.getStatus(), task.getPriority(), task.getCreateDate(), task.getUpdateDate(), terms);
+
+        lock.writeLock().lock();
+        try {
+            LocalDateTime deleted = tombstones.get(task.getId());
+            if (deleted != null && !doc.updateDate().isAfter(deleted)) {
+                return;
+            }
+            Doc previous = docs.get(task.getId());
+            // при первичном построении строка из базы может оказаться старше уже примененного события
+            if (previous != null && doc.updateDate().isBefore(previous.updateDate())) {
+                return;
+            }
+            if (previous != null) {
+                unindex(task.getId(), previous);
+            }
+            docs.put(task.getId(), doc);
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(task.getId(), tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(List<UUID> ids) {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // пока идет первичный проход, надгробия не снимаются: он может прочитать строку сколь угодно раньше
+            if (!building) {
+                LocalDateTime expired = now.minus(tombstoneTtl);
+                Iterator<LocalDateTime> oldest = tombstones.values().iterator();
+                while (oldest.hasNext() && oldest.next().isBefore(expired)) {
+                    oldest.remove();
+                }
+            }
+            for (UUID id : ids) {
+                remove(id);
+                tombstones.put(id, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // статус меняется на месте: слова задачи те же, перечитывать ее из базы не нужно
+    private void changeStatus(List<ChangedStatus> changes) {
+        lock.writeLock().lock();
+        try {
+            for (ChangedStatus change : changes) {
+                setStatus(change);
+                if (building) {
+                    changedWhileBuilding.put(change.id(), change);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setStatus(ChangedStatus change) {
+        docs.computeIfPresent(change.id(), (key, doc) -> doc.updateDate().isAfter(change.updateDate()) ? doc
+                : new Doc(change.status(), doc.priority(), doc.createDate(), change.updateDate(), doc.terms()));
+    }
+
+    private void remove(UUID id) {
+        Doc previous = docs.remove(id);
+        if (previous != null) {
+            unindex(id, previous);
+        }
+    }
+
+    private void unindex(UUID id, Doc doc) {
+        for (String term : doc.terms().keySet()) {
+            Map<UUID, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private double score(Doc doc, String token) {
+        double score = 0;
+        for (Map.Entry<String, Integer> term : matching(doc.terms(), token).entrySet()) {
+            double weight = term.getKey().equals(token) ? 1 : PREFIX_WEIGHT;
+            score += term.getValue() * idf(term.getKey()) * weight;
+        }
+        return score;
+    }
+
+    private long frequency(String token) {
+        long frequency = 0;
+        for (Map<UUID, Integer> posting : matching(postings, token).values()) {
+            frequency += posting.size();
+        }
+        return frequency;
+    }
+
+    private double idf(String term) {
+        Map<UUID, Integer> posting = postings.get(term);
+        int df = posting == null ? 0 : posting.size();
+        return Math.log(1 + (double) docs.size() / Math.max(df, 1));
+    }
+
+    private static <V> SortedMap<String, V> matching(TreeMap<String, V> terms, String prefix) {
+        return terms.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static boolean matches(Doc doc, Status status, Priority priority) {
+        return doc != null && (status == null || doc.status() == status) && (priority == null || doc.priority() == priority);
+    }
+}
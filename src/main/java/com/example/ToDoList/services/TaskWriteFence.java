@@ -0,0 +1,35 @@
+package com.example.ToDoList.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Отделяет записи в todolist от сверки TaskCounters. Запись держит общий пропуск от изменения строк
+// до публикации TaskEvent, сверка - исключительный: пока он взят, в базе нет закоммиченных, но еще
+// не опубликованных изменений, и GROUP BY совпадает с тем, что уже дошло до слушателей
+@Component
+public class TaskWriteFence {
+
+    // нечестная блокировка все равно не пускает новых писателей вперед ждущей сверки, поэтому
+    // сверка не голодает при постоянном потоке записей
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public Permit write() {
+        return acquire(lock.readLock());
+    }
+
+    public Permit quiesce() {
+        return acquire(lock.writeLock());
+    }
+
+    private static Permit acquire(Lock permit) {
+        permit.lock();
+        return permit::unlock;
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ToDoList.settings;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// AIMD-лимит одновременных запросов к API. Сигнал перегрузки - время вызовов ToDoListDb: за каждое окно
+// считается среднее геометрическое (один долгий экспорт среди тысячи быстрых запросов его почти не сдвигает)
+// и сравнивается с базовым - минимальным из наблюдавшихся, с медленным дрейфом вверх. Среднее выше базового
+// в tolerance раз - лимит умножается на backoff; иначе, если занята хотя бы половина лимита, растет на 1.
+public class AdaptiveConcurrencyLimit {
+
+    private static final int MIN_SAMPLES = 10;
+    private static final double BASELINE_DRIFT = 0.002;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final long windowNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final DoubleAdder logLatency = new DoubleAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile int limit;
+    private volatile double baseline;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double backoff, long windowNanos) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.windowNanos = windowNanos;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                peak.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public void onSample(long latencyNanos) {
+        onSample(latencyNanos, System.nanoTime());
+    }
+
+    // окно закрывает тот вызов, который первым выиграл CAS по windowStart, остальные только копят замеры
+    public void onSample(long latencyNanos, long now) {
+        logLatency.add(Math.log(Math.max(latencyNanos, 1)));
+        samples.increment();
+
+        long start = windowStart.get();
+        if (now - start < windowNanos || samples.sum() < MIN_SAMPLES || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        long count = samples.sumThenReset();
+        double average = Math.exp(logLatency.sumThenReset() / count);
+        int busy = peak.getAndSet(inflight.get());
+
+        double base = baseline;
+        baseline = base == 0 ? average : Math.min(average, base + (average - base) * BASELINE_DRIFT);
+
+        int current = limit;
+        if (base > 0 && average > base * tolerance) {
+            limit = Math.max(minLimit, (int) (current * backoff));
+        } else if (busy * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    public double baselineMillis() {
+        return baseline / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.models.ResponseModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Допуск запросов к /api/ToDoList/**: сначала ограничение частоты для клиента (429), затем адаптивный
+// лимит одновременных запросов (503). Отказ отдается сразу, с Retry-After, и не занимает ни поток
+// обработки, ни соединение с базой. Для SSE и потоковой выгрузки место освобождается, как только
+// контроллер вернул emitter, а не по окончании потока.
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final ClientRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionFilter(AdaptiveConcurrencyLimit concurrencyLimit,
+                           ClientRateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           MeterRegistry registry,
+                           @Value("${todolist.admission.enabled:true}") boolean enabled) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.rateLimited = Counter.builder("todolist.admission.rejected")
+                .description("Запросы, отклоненные до контроллера")
+                .tag("reason", "rate")
+                .register(registry);
+        this.shed = Counter.builder("todolist.admission.rejected")
+                .description("Запросы, отклоненные до контроллера")
+                .tag("reason", "overload")
+                .register(registry);
+        Gauge.builder("todolist.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+                .description("Текущий лимит одновременных запросов")
+                .register(registry);
+        Gauge.builder("todolist.admission.inflight", concurrencyLimit, AdaptiveConcurrencyLimit::inflight)
+                .description("Запросы в обработке")
+                .register(registry);
+        Gauge.builder("todolist.admission.baseline", concurrencyLimit, AdaptiveConcurrencyLimit::baselineMillis)
+                .description("Базовое время вызова ToDoListDb")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long wait = rateLimiter.tryAcquire(request.getRemoteAddr());
+        if (wait > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Слишком много запросов, повторите позже");
+            return;
+        }
+
+        if (!concurrencyLimit.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "Сервер перегружен, повторите позже");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message) throws IOException {
+        long seconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ResponseModel(status.value(), message));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ToDoList.settings;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket на клиента в форме GCRA: вместо счетчика токенов хранится одно число - теоретическое время
+// следующего запроса, поэтому не нужно фоновое пополнение, а проверка - один CAS. rate запросов в секунду
+// в среднем и до burst подряд. Бездействующий дольше, чем нужно на полное пополнение, клиент вытесняется
+// из кэша без потерь: новая запись начинается с полного ведра.
+public class ClientRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> clients;
+
+    public ClientRateLimiter(double rate, int burst, long maxClients) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(intervalNanos * burst, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    // 0 - запрос пропускается, иначе через сколько наносекунд клиенту стоит повторить
+    public long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    public long tryAcquire(String client, long now) {
+        AtomicLong next = clients.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = next.get();
+            long start = Math.max(current, now);
+            if (start - now > toleranceNanos) {
+                return start - now - toleranceNanos;
+            }
+            if (next.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
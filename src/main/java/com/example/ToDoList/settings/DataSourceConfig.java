@@ -0,0 +1,52 @@
+package com.example.ToDoList.settings;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Hikari из автоконфигурации оборачивается в BulkheadDataSource; метрики hikaricp.* продолжают
+    // работать, так как Spring Boot находит пул через DelegatingDataSource
+    @Bean
+    public static BeanPostProcessor dataSourceBulkhead(@Value("${todolist.db.bulkhead-timeout:PT30S}") Duration timeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new BulkheadDataSource(hikari, hikari.getMaximumPoolSize(), timeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // время каждого вызова репозиториев (включая ожидание соединения) - сигнал для AdaptiveConcurrencyLimit.
+    // Подключается так же, как метрики spring.data.repository.invocations: слушателем фабрики репозиториев
+    @Bean
+    public static BeanPostProcessor repositoryLatency(ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimit) {
+        Supplier<AdaptiveConcurrencyLimit> limit = SingletonSupplier.of(concurrencyLimit::getObject);
+        RepositoryMethodInvocationListener listener =
+                invocation -> limit.get().onSample(invocation.getDuration(TimeUnit.NANOSECONDS));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factory) {
+                    factory.addRepositoryFactoryCustomizer(repositoryFactory -> repositoryFactory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
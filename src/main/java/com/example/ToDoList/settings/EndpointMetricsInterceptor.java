@@ -0,0 +1,54 @@
+package com.example.ToDoList.settings;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Время ответа каждого метода ToDoListController и счетчики ответов 4xx/5xx
+@Component
+@RequiredArgsConstructor
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String SAMPLE = EndpointMetricsInterceptor.class.getName() + ".sample";
+
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(SAMPLE, Timer.start(registry));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod method) || !(request.getAttribute(SAMPLE) instanceof Timer.Sample sample)) {
+            return;
+        }
+        String endpoint = method.getMethod().getName();
+        String status = String.valueOf(response.getStatus());
+
+        sample.stop(Timer.builder("todolist.endpoint")
+                .description("Время обработки запросов ToDoListController")
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(registry));
+
+        if (response.getStatus() >= 400) {
+            Counter.builder("todolist.endpoint.errors")
+                    .description("Ответы ToDoListController с кодом 4xx/5xx")
+                    .tag("endpoint", endpoint)
+                    .tag("status", status)
+                    .register(registry)
+                    .increment();
+        }
+    }
+}
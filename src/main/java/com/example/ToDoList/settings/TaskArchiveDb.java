@@ -0,0 +1,11 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.entity.ArchivedTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface TaskArchiveDb extends JpaRepository<ArchivedTask, UUID>, TaskArchiveDbCustom {
+}
@@ -0,0 +1,17 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TaskArchiveDbCustom {
+
+    List<UUID> archive(LocalDateTime finishedBefore, int limit, LocalDateTime now);
+
+    List<TaskSummary> findArchivePage(Status status, Priority priority, TaskCursor after, int limit);
+}
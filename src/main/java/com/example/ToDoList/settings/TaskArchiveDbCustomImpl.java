@@ -0,0 +1,90 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.entity.ArchivedTask;
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class TaskArchiveDbCustomImpl implements TaskArchiveDbCustom {
+
+    // OLD TABLE возвращает удаленные строки целиком, и в архив попадают ровно они: задача, которую
+    // за это время вернули в работу, под условие DELETE уже не подходит и остается в todolist
+    private static final String TAKE_FINISHED =
+            "SELECT * FROM OLD TABLE (DELETE FROM todolist WHERE id IN (SELECT id FROM todolist " +
+            "WHERE status IN ('Completed', 'Late') AND update_date < :finishedBefore FETCH FIRST :limit ROWS ONLY) " +
+            "AND status IN ('Completed', 'Late') AND update_date < :finishedBefore)";
+
+    private static final String INSERT_ARCHIVED =
+            "INSERT INTO todolist_archive (id, title, description, deadline, status, priority, create_date, update_date, " +
+            "archive_date) VALUES (:id, :title, :description, :deadline, :status, :priority, :createDate, :updateDate, :now)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // удаление и вставка в одной транзакции: задача либо еще в todolist, либо уже в архиве
+    @Override
+    @Transactional
+    public List<UUID> archive(LocalDateTime finishedBefore, int limit, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("finishedBefore", finishedBefore)
+                .addValue("limit", limit);
+        List<ToDoList> tasks = jdbc.query(TAKE_FINISHED, params, ToDoListDbCustomImpl.TASK);
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource[] rows = tasks.stream()
+                .map(task -> new MapSqlParameterSource()
+                        .addValue("id", task.getId())
+                        .addValue("title", task.getTitle())
+                        .addValue("description", task.getDescription())
+                        .addValue("deadline", task.getDeadline())
+                        .addValue("status", task.getStatus().name())
+                        .addValue("priority", task.getPriority() != null ? task.getPriority().name() : null)
+                        .addValue("createDate", task.getCreateDate())
+                        .addValue("updateDate", task.getUpdateDate())
+                        .addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbc.batchUpdate(INSERT_ARCHIVED, rows);
+        return tasks.stream().map(ToDoList::getId).toList();
+    }
+
+    // те же фильтры и keyset-условие, что у /taskList, порядок - от новых к старым
+    @Override
+    public List<TaskSummary> findArchivePage(Status status, Priority priority, TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> query = cb.createQuery(TaskSummary.class);
+        Root<ArchivedTask> task = query.from(ArchivedTask.class);
+
+        Predicate where = ToDoListDbCustomImpl.filter(cb, task, status, priority);
+        if (after != null) {
+            where = cb.and(where, ToDoListDbCustomImpl.after(cb, task, after));
+        }
+        query.select(ToDoListDbCustomImpl.summary(cb, task))
+                .where(where)
+                .orderBy(ToDoListDbCustomImpl.order(cb, task, TaskCursor.Mode.CREATED_DESC));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.models.TaskEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.stereotype.Component;
+
+// Слушатели TaskEvent (кэш, лента, индексы, счетчики, OverdueSweeper) вызываются синхронно в потоке записи,
+// уже после коммита. Их ошибка не должна превращать подтвержденную запись в 500 и не должна лишать
+// событие остальных слушателей, поэтому она только пишется в лог. Остальные события, в том числе
+// ApplicationReadyEvent, обрабатываются как обычно: ошибка при старте должна остановить приложение
+@Slf4j
+@Component("applicationEventMulticaster")
+public class TaskEventMulticaster extends SimpleApplicationEventMulticaster {
+
+    @Override
+    protected void invokeListener(ApplicationListener<?> listener, ApplicationEvent event) {
+        if (!(event instanceof PayloadApplicationEvent<?> payload) || !(payload.getPayload() instanceof TaskEvent task)) {
+            super.invokeListener(listener, event);
+            return;
+        }
+        try {
+            super.invokeListener(listener, event);
+        } catch (RuntimeException error) {
+            log.error("Слушатель {} не обработал событие {} {}", listener, task.type(), task.id(), error);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ToDoList.settings;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TaskMetrics {
+
+    private final DistributionSummary listRows;
+    private final DistributionSummary createBatchRows;
+
+    public TaskMetrics(MeterRegistry registry) {
+        this.listRows = DistributionSummary.builder("todolist.tasklist.rows")
+                .description("Количество задач в ответе /taskList")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.createBatchRows = DistributionSummary.builder("todolist.create.batch.rows")
+                .description("Количество задач в одной транзакции групповой записи taskCreate")
+                .baseUnit("rows")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordListRows(int rows) {
+        listRows.record(rows);
+    }
+
+    public void recordCreateBatch(int rows) {
+        createBatchRows.record(rows);
+    }
+}
@@ -1,11 +1,40 @@
 package com.example.ToDoList.settings;
 
 import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCount;
+import com.example.ToDoList.models.TaskDeadline;
+import com.example.ToDoList.models.TaskDetails;
+import com.example.ToDoList.models.TaskSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ToDoListDb extends JpaRepository<ToDoList, UUID> {
+public interface ToDoListDb extends JpaRepository<ToDoList, UUID>, ToDoListDbCustom {
+
+    @Query("select new com.example.ToDoList.models.TaskDeadline(t.id, t.deadline) from ToDoList t " +
+            "where t.status = :status and t.deadline > :after and t.deadline <= :until")
+    List<TaskDeadline> findDeadlines(@Param("status") Status status,
+                                     @Param("after") LocalDateTime after,
+                                     @Param("until") LocalDateTime until);
+
+    @Query("select new com.example.ToDoList.models.TaskDetails(t.id, t.title, t.description, t.deadline, " +
+            "t.status, t.priority, t.createDate, t.updateDate, t.version) from ToDoList t where t.id = :id")
+    Optional<TaskDetails> findDetailsById(@Param("id") UUID id);
+
+    @Query("select new com.example.ToDoList.models.TaskSummary(t.id, t.title, t.deadline, t.status, t.priority, " +
+            "t.createDate, t.updateDate) from ToDoList t where t.id in :ids")
+    List<TaskSummary> findSummaries(@Param("ids") Collection<UUID> ids);
+
+    @Query("select new com.example.ToDoList.models.TaskCount(t.status, t.priority, count(t)) from ToDoList t " +
+            "group by t.status, t.priority")
+    List<TaskCount> countByStatusAndPriority();
 }
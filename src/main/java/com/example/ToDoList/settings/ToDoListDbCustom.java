@@ -0,0 +1,53 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ChangedStatus;
+import com.example.ToDoList.models.OverdueTask;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.SortDirection;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.StatusChange;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskListVersion;
+import com.example.ToDoList.models.TaskSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface ToDoListDbCustom {
+
+    List<TaskSummary> findTasks(Status status, Priority priority, SortDirection sortDirection, Boolean sortByPriority);
+
+    List<TaskSummary> findTaskPage(Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after, int limit);
+
+    List<Map<String, Object>> findTaskFields(Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after,
+                                             Integer limit, Set<String> fields);
+
+    TaskListVersion listVersion(Status status, Priority priority);
+
+    long forEachTask(Status status, Priority priority, Consumer<ToDoList> consumer);
+
+    void insertBatch(List<ToDoList> tasks);
+
+    List<OverdueTask> markOverdue(Collection<UUID> ids, LocalDateTime now);
+
+    List<OverdueTask> markOverdue(LocalDateTime now, int limit);
+
+    Optional<StatusChange> changeTaskStatus(UUID id, Long version, boolean completed, LocalDateTime now);
+
+    Optional<ToDoList> deleteTask(UUID id, Long version);
+
+    List<ChangedStatus> changeStatusBulk(Collection<UUID> ids, boolean completed, LocalDateTime now);
+
+    List<ChangedStatus> changeStatusBulk(Status status, LocalDateTime updatedBefore, boolean completed, LocalDateTime now);
+
+    List<UUID> deleteBulk(Collection<UUID> ids);
+
+    List<UUID> deleteBulk(Status status, LocalDateTime updatedBefore);
+}
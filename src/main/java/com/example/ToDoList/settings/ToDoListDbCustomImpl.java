@@ -0,0 +1,433 @@
+package com.example.ToDoList.settings;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ChangedStatus;
+import com.example.ToDoList.models.OverdueTask;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.SortDirection;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.StatusChange;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskListVersion;
+import com.example.ToDoList.models.TaskSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class ToDoListDbCustomImpl implements ToDoListDbCustom {
+
+    // FINAL TABLE (H2) возвращает id именно тех строк, которые изменил UPDATE
+    private static final String MARK_OVERDUE_BY_IDS =
+            "SELECT id, priority FROM FINAL TABLE (UPDATE todolist SET status = 'Overdue', update_date = :now, " +
+            "version = version + 1 WHERE id IN (:ids) AND status = 'Active' AND deadline < :now)";
+
+    private static final String MARK_OVERDUE_DUE =
+            "SELECT id, priority FROM FINAL TABLE (UPDATE todolist SET status = 'Overdue', update_date = :now, " +
+            "version = version + 1 WHERE id IN (SELECT id FROM todolist WHERE status = 'Active' AND deadline < :now " +
+            "FETCH FIRST :limit ROWS ONLY))";
+
+    // те же правила, что и в taskChangeStatus: просроченный дедлайн дает Late/Overdue вместо Completed/Active
+    private static final String CHANGE_STATUS =
+            "SELECT id, status, update_date FROM FINAL TABLE (UPDATE todolist SET " +
+            "status = CASE WHEN deadline < :now THEN :late ELSE :onTime END, update_date = :now, " +
+            "version = version + 1 WHERE %s)";
+
+    // одна задача за один запрос: OLD TABLE возвращает строку до изменения, а новое состояние однозначно
+    // вычисляется из нее; условие по версии делает запрос compare-and-set без блокировок
+    private static final String CHANGE_STATUS_ONE =
+            "SELECT * FROM OLD TABLE (UPDATE todolist SET " +
+            "status = CASE WHEN deadline < :now THEN :late ELSE :onTime END, update_date = :now, " +
+            "version = version + 1 WHERE %s)";
+
+    private static final String DELETE_ONE =
+            "SELECT * FROM OLD TABLE (DELETE FROM todolist WHERE %s)";
+
+    private static final String DELETE =
+            "SELECT id FROM OLD TABLE (DELETE FROM todolist WHERE %s)";
+
+    private static final RowMapper<OverdueTask> OVERDUE_TASK = (rs, row) -> {
+        String priority = rs.getString("priority");
+        return new OverdueTask(rs.getObject("id", UUID.class), priority != null ? Priority.valueOf(priority) : null);
+    };
+
+    private static final RowMapper<ChangedStatus> CHANGED_STATUS = (rs, row) -> new ChangedStatus(
+            rs.getObject("id", UUID.class),
+            Status.valueOf(rs.getString("status")),
+            rs.getObject("update_date", LocalDateTime.class));
+
+    static final RowMapper<ToDoList> TASK = (rs, row) -> {
+        ToDoList task = new ToDoList();
+        task.setId(rs.getObject("id", UUID.class));
+        task.setTitle(rs.getString("title"));
+        task.setDescription(rs.getString("description"));
+        task.setDeadline(rs.getObject("deadline", LocalDateTime.class));
+        task.setStatus(Status.valueOf(rs.getString("status")));
+        String priority = rs.getString("priority");
+        task.setPriority(priority != null ? Priority.valueOf(priority) : null);
+        task.setCreateDate(rs.getObject("create_date", LocalDateTime.class));
+        task.setUpdateDate(rs.getObject("update_date", LocalDateTime.class));
+        task.setVersion(rs.getLong("version"));
+        return task;
+    };
+
+    private static final int IDS_CHUNK = 1000;
+
+    // корзины приоритета в порядке ранга: без приоритета (-1), затем Low..Critical
+    private static final List<Priority> PRIORITY_BUCKETS = priorityBuckets(false);
+    private static final List<Priority> PRIORITY_BUCKETS_DESC = priorityBuckets(true);
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    // списки читаются проекциями: только нужные колонки, без managed-сущностей и dirty checking
+    @Override
+    public List<TaskSummary> findTasks(Status status, Priority priority, SortDirection sortDirection, Boolean sortByPriority) {
+        return list(TaskSummary.class, ToDoListDbCustomImpl::summary,
+                status, priority, TaskCursor.Mode.of(sortDirection, sortByPriority), null, null);
+    }
+
+    @Override
+    public List<TaskSummary> findTaskPage(Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after, int limit) {
+        return list(TaskSummary.class, ToDoListDbCustomImpl::summary, status, priority, mode, after, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> findTaskFields(Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after,
+                                                    Integer limit, Set<String> fields) {
+        List<Tuple> tuples = list(Tuple.class, (cb, task) -> cb.tuple(fields.stream()
+                        .map(field -> task.get(field).alias(field))
+                        .toArray(Selection<?>[]::new)),
+                status, priority, mode, after, limit);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // агрегат для ETag списка: строки не загружаются, а индекс (status, priority, update_date) его покрывает
+    @Override
+    public TaskListVersion listVersion(Status status, Priority priority) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskListVersion> query = cb.createQuery(TaskListVersion.class);
+        Root<ToDoList> task = query.from(ToDoList.class);
+
+        query.select(cb.construct(TaskListVersion.class, cb.count(task), cb.greatest(task.<LocalDateTime>get("updateDate"))))
+                .where(filter(cb, task, status, priority));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Сортировка по приоритету читается корзинами: для каждого значения priority в порядке ранга отдельный
+    // запрос "priority = :p [AND (create_date, id) после курсора] ORDER BY create_date, id". Он идет по индексу
+    // (status, priority, create_date, id) или (priority, create_date, id) с места курсора, поэтому глубокая
+    // страница стоит столько же, сколько первая: ранг не вычисляется и вся выборка не сортируется
+    private <T> List<T> list(Class<T> type,
+                             BiFunction<CriteriaBuilder, Root<ToDoList>, Selection<? extends T>> select,
+                             Status status, Priority priority, TaskCursor.Mode mode, TaskCursor after, Integer limit) {
+        if (!mode.byPriority()) {
+            return listQuery(type, select, (cb, task) -> {
+                Predicate where = filter(cb, task, status, priority);
+                return after != null ? cb.and(where, after(cb, task, after)) : where;
+            }, mode, limit, status != null, priority != null);
+        }
+
+        List<T> rows = new ArrayList<>();
+        for (Priority bucket : mode == TaskCursor.Mode.PRIORITY_ASC ? PRIORITY_BUCKETS : PRIORITY_BUCKETS_DESC) {
+            int rank = TaskCursor.rank(bucket);
+            if ((priority != null && bucket != priority)
+                    || (after != null && (mode == TaskCursor.Mode.PRIORITY_ASC ? rank < after.rank() : rank > after.rank()))) {
+                continue;
+            }
+            if (limit != null && rows.size() >= limit) {
+                break;
+            }
+            TaskCursor from = after != null && rank == after.rank() ? after : null;
+            rows.addAll(listQuery(type, select, (cb, task) -> {
+                Path<Priority> path = task.get("priority");
+                Predicate where = cb.and(filter(cb, task, status, null),
+                        bucket == null ? cb.isNull(path) : cb.equal(path, bucket));
+                return from != null ? cb.and(where, after(cb, task, from)) : where;
+            }, TaskCursor.Mode.CREATED_ASC, limit != null ? limit - rows.size() : null, status != null, true));
+        }
+        return rows;
+    }
+
+    private <T> List<T> listQuery(Class<T> type,
+                                  BiFunction<CriteriaBuilder, Root<ToDoList>, Selection<? extends T>> select,
+                                  BiFunction<CriteriaBuilder, Root<ToDoList>, Predicate> where,
+                                  TaskCursor.Mode mode, Integer limit, boolean fixedStatus, boolean fixedPriority) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<ToDoList> task = query.from(ToDoList.class);
+
+        // колонки с условием равенства добавляются в начало ORDER BY: порядок строк от этого не меняется,
+        // но H2 видит, что сортировка совпадает с индексом (status, priority, create_date, id), и не сортирует
+        boolean descending = mode == TaskCursor.Mode.CREATED_DESC;
+        List<Order> orders = new ArrayList<>();
+        if (fixedStatus) {
+            orders.add(descending ? cb.desc(task.get("status")) : cb.asc(task.get("status")));
+        }
+        if (fixedPriority) {
+            orders.add(descending ? cb.desc(task.get("priority")) : cb.asc(task.get("priority")));
+        }
+        orders.addAll(order(cb, task, mode));
+
+        query.select(select.apply(cb, task))
+                .where(where.apply(cb, task))
+                .orderBy(orders);
+
+        TypedQuery<T> typed = entityManager.createQuery(query);
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+
+    static Selection<TaskSummary> summary(CriteriaBuilder cb, Root<?> task) {
+        return cb.construct(TaskSummary.class,
+                task.get("id"), task.get("title"), task.get("deadline"), task.get("status"),
+                task.get("priority"), task.get("createDate"), task.get("updateDate"));
+    }
+
+    // строки читаются курсором и сразу отсоединяются, поэтому память не зависит от числа задач
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachTask(Status status, Priority priority, Consumer<ToDoList> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ToDoList> query = cb.createQuery(ToDoList.class);
+        Root<ToDoList> task = query.from(ToDoList.class);
+
+        query.select(task)
+                .where(filter(cb, task, status, priority))
+                .orderBy(order(cb, task, TaskCursor.Mode.CREATED_ASC));
+
+        long count = 0;
+        try (Stream<ToDoList> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            for (ToDoList row : (Iterable<ToDoList>) rows::iterator) {
+                consumer.accept(row);
+                entityManager.detach(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // persist + flush/clear каждые batchSize строк: Hibernate отправляет их одним JDBC batch,
+    // а persistence context не растет вместе с размером импорта
+    @Override
+    @Transactional
+    public void insertBatch(List<ToDoList> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            entityManager.persist(tasks.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<OverdueTask> markOverdue(Collection<UUID> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", now);
+        return jdbc.query(MARK_OVERDUE_BY_IDS, params, OVERDUE_TASK);
+    }
+
+    @Override
+    public List<OverdueTask> markOverdue(LocalDateTime now, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("limit", limit);
+        return jdbc.query(MARK_OVERDUE_DUE, params, OVERDUE_TASK);
+    }
+
+    @Override
+    public Optional<StatusChange> changeTaskStatus(UUID id, Long version, boolean completed, LocalDateTime now) {
+        MapSqlParameterSource params = statusParams(completed, now);
+        List<ToDoList> before = jdbc.query(CHANGE_STATUS_ONE.formatted(idSql(id, version, params)), params, TASK);
+        if (before.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ToDoList task = before.get(0);
+        Status previousStatus = task.getStatus();
+        boolean late = task.getDeadline() != null && task.getDeadline().isBefore(now);
+        task.setStatus(completed
+                ? (late ? Status.Late : Status.Completed)
+                : (late ? Status.Overdue : Status.Active));
+        task.setUpdateDate(now);
+        task.setVersion(task.getVersion() + 1);
+        return Optional.of(new StatusChange(task, previousStatus));
+    }
+
+    @Override
+    public Optional<ToDoList> deleteTask(UUID id, Long version) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<ToDoList> deleted = jdbc.query(DELETE_ONE.formatted(idSql(id, version, params)), params, TASK);
+        return deleted.stream().findFirst();
+    }
+
+    // куски по IDS_CHUNK выполняются в одной транзакции: запрос применяется целиком или никак
+    @Override
+    @Transactional
+    public List<ChangedStatus> changeStatusBulk(Collection<UUID> ids, boolean completed, LocalDateTime now) {
+        List<ChangedStatus> changed = new ArrayList<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            MapSqlParameterSource params = statusParams(completed, now).addValue("ids", chunk);
+            changed.addAll(jdbc.query(CHANGE_STATUS.formatted("id IN (:ids)"), params, CHANGED_STATUS));
+        }
+        return changed;
+    }
+
+    @Override
+    public List<ChangedStatus> changeStatusBulk(Status status, LocalDateTime updatedBefore, boolean completed, LocalDateTime now) {
+        MapSqlParameterSource params = statusParams(completed, now);
+        String where = filterSql(status, updatedBefore, params);
+        return jdbc.query(CHANGE_STATUS.formatted(where), params, CHANGED_STATUS);
+    }
+
+    @Override
+    @Transactional
+    public List<UUID> deleteBulk(Collection<UUID> ids) {
+        List<UUID> deleted = new ArrayList<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", chunk);
+            deleted.addAll(jdbc.queryForList(DELETE.formatted("id IN (:ids)"), params, UUID.class));
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<UUID> deleteBulk(Status status, LocalDateTime updatedBefore) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = filterSql(status, updatedBefore, params);
+        return jdbc.queryForList(DELETE.formatted(where), params, UUID.class);
+    }
+
+    private static MapSqlParameterSource statusParams(boolean completed, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("onTime", (completed ? Status.Completed : Status.Active).name())
+                .addValue("late", (completed ? Status.Late : Status.Overdue).name());
+    }
+
+    private static String idSql(UUID id, Long version, MapSqlParameterSource params) {
+        params.addValue("id", id);
+        if (version == null) {
+            return "id = :id";
+        }
+        params.addValue("version", version);
+        return "id = :id AND version = :version";
+    }
+
+    private static String filterSql(Status status, LocalDateTime updatedBefore, MapSqlParameterSource params) {
+        params.addValue("status", status.name());
+        if (updatedBefore == null) {
+            return "status = :status";
+        }
+        params.addValue("updatedBefore", updatedBefore);
+        return "status = :status AND update_date < :updatedBefore";
+    }
+
+    private static List<List<UUID>> chunks(Collection<UUID> ids) {
+        List<UUID> all = new ArrayList<>(ids);
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IDS_CHUNK) {
+            chunks.add(all.subList(from, Math.min(from + IDS_CHUNK, all.size())));
+        }
+        return chunks;
+    }
+
+    static Predicate filter(CriteriaBuilder cb, Root<?> task, Status status, Priority priority) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(task.get("status"), status));
+        }
+        if (priority != null) {
+            predicates.add(cb.equal(task.get("priority"), priority));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    // порядок внутри выборки: по дате создания и id; приоритет задает порядок корзин в list()
+    static List<Order> order(CriteriaBuilder cb, Root<?> task, TaskCursor.Mode mode) {
+        List<Order> orders = new ArrayList<>();
+        if (mode == TaskCursor.Mode.CREATED_DESC) {
+            orders.add(cb.desc(task.get("createDate")));
+            orders.add(cb.desc(task.get("id")));
+        } else {
+            orders.add(cb.asc(task.get("createDate")));
+            orders.add(cb.asc(task.get("id")));
+        }
+        return orders;
+    }
+
+    // keyset-условие "строго после курсора" по (createDate, id) в том же порядке, что и order();
+    // для сортировки по приоритету оно применяется только в корзине курсора
+    static Predicate after(CriteriaBuilder cb, Root<?> task, TaskCursor cursor) {
+        Path<LocalDateTime> createDate = task.get("createDate");
+        Path<UUID> id = task.get("id");
+
+        return cursor.mode() == TaskCursor.Mode.CREATED_DESC
+                ? cb.or(cb.lessThan(createDate, cursor.createDate()),
+                        cb.and(cb.equal(createDate, cursor.createDate()), cb.lessThan(id, cursor.id())))
+                : cb.or(cb.greaterThan(createDate, cursor.createDate()),
+                        cb.and(cb.equal(createDate, cursor.createDate()), cb.greaterThan(id, cursor.id())));
+    }
+
+    private static List<Priority> priorityBuckets(boolean descending) {
+        List<Priority> buckets = new ArrayList<>();
+        buckets.add(null);
+        buckets.addAll(Arrays.asList(Priority.values()));
+        if (descending) {
+            Collections.reverse(buckets);
+        }
+        return Collections.unmodifiableList(buckets);
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.ToDoList.settings;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig {
+
+    private final EndpointMetricsInterceptor endpointMetricsInterceptor;
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -16,4 +27,41 @@ public class WebConfig {
             }
         };
     }
+
+    @Bean
+    public WebMvcConfigurer metricsConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(endpointMetricsInterceptor).addPathPatterns("/api/ToDoList/**");
+            }
+        };
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(@Value("${todolist.admission.initial-limit:100}") int initialLimit,
+                                                             @Value("${todolist.admission.min-limit:10}") int minLimit,
+                                                             @Value("${todolist.admission.max-limit:2000}") int maxLimit,
+                                                             @Value("${todolist.admission.latency-tolerance:2.0}") double tolerance,
+                                                             @Value("${todolist.admission.backoff:0.9}") double backoff,
+                                                             @Value("${todolist.admission.window:PT0.1S}") Duration window) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, backoff, window.toNanos());
+    }
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(@Value("${todolist.admission.rate:100}") double rate,
+                                               @Value("${todolist.admission.burst:200}") int burst,
+                                               @Value("${todolist.admission.max-clients:100000}") long maxClients) {
+        return new ClientRateLimiter(rate, burst, maxClients);
+    }
+
+    // после фильтров Spring Boot с наивысшим приоритетом (кодировка, наблюдение http.server.requests),
+    // чтобы отклоненные запросы тоже попадали в метрики
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilterRegistration(AdmissionFilter admissionFilter) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(admissionFilter);
+        registration.addUrlPatterns("/api/ToDoList/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
 }
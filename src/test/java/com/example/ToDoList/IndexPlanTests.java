@@ -0,0 +1,89 @@
+package com.example.ToDoList;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.settings.ToDoListDb;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class IndexPlanTests {
+
+    @Autowired
+    ToDoListDb toDoListDb;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    void fillTable() {
+        LocalDateTime now = LocalDateTime.now();
+        Status[] statuses = Status.values();
+        Priority[] priorities = Priority.values();
+        List<ToDoList> tasks = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ToDoList task = new ToDoList();
+            task.setTitle("задача " + i);
+            task.setStatus(statuses[i % statuses.length]);
+            task.setPriority(priorities[(i / statuses.length) % priorities.length]);
+            task.setCreateDate(now.minusMinutes(i));
+            task.setDeadline(i % 3 == 0 ? null : now.plusDays(i));
+            tasks.add(task);
+        }
+        toDoListDb.saveAll(tasks);
+        entityManager.flush();
+        entityManager.createNativeQuery("ANALYZE").executeUpdate();
+    }
+
+    private String plan(String sql) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult()).toUpperCase();
+    }
+
+    //Список с фильтром по статусу и приоритету
+    @Test
+    void listByStatusAndPriorityUsesIndex() {
+        String plan = plan("SELECT * FROM todolist WHERE status = 'Active' AND priority = 'High' " +
+                "ORDER BY status, priority, create_date, id");
+        assertTrue(plan.contains("IDX_TODOLIST_STATUS_PRIORITY_CREATED_ID") && plan.contains("INDEX SORTED"), plan);
+    }
+
+    //Поиск просроченных задач
+    @Test
+    void overdueLookupUsesIndex() {
+        String plan = plan("SELECT id FROM todolist WHERE status = 'Active' AND deadline < TIMESTAMP '2000-01-01 00:00:00'");
+        assertTrue(plan.contains("IDX_TODOLIST_STATUS_DEADLINE"), plan);
+    }
+
+    //Упорядоченный список без фильтров
+    @Test
+    void orderedListUsesIndex() {
+        String plan = plan("SELECT * FROM todolist ORDER BY create_date, id LIMIT 50");
+        assertTrue(plan.contains("IDX_TODOLIST_CREATED_ID"), plan);
+    }
+
+    //Сортировка по приоритету: страница из корзины приоритета с места курсора, без сортировки всей выборки
+    @Test
+    void priorityPageSeeksBucket() {
+        String after = "(create_date > TIMESTAMP '2000-01-01 00:00:00' OR (create_date = TIMESTAMP '2000-01-01 00:00:00' " +
+                "AND id > '00000000-0000-0000-0000-000000000000'))";
+        String plan = plan("SELECT * FROM todolist WHERE status = 'Active' AND priority = 'High' AND " + after +
+                " ORDER BY status, priority, create_date, id LIMIT 50");
+        assertTrue(plan.contains("IDX_TODOLIST_STATUS_PRIORITY_CREATED_ID") && plan.contains("INDEX SORTED"), plan);
+
+        plan = plan("SELECT * FROM todolist WHERE priority = 'High' AND " + after + " ORDER BY priority, create_date, id LIMIT 50");
+        assertTrue(plan.contains("IDX_TODOLIST_PRIORITY_CREATED_ID") && plan.contains("INDEX SORTED"), plan);
+
+        plan = plan("SELECT * FROM todolist WHERE priority IS NULL AND " + after + " ORDER BY priority, create_date, id LIMIT 50");
+        assertTrue(plan.contains("IDX_TODOLIST_PRIORITY_CREATED_ID") && plan.contains("INDEX SORTED"), plan);
+    }
+}
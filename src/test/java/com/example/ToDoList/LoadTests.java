@@ -0,0 +1,130 @@
+package com.example.ToDoList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Нагрузочный тест, по умолчанию пропускается. Запуск:
+//   ./mvnw test -Dtest=LoadTests -Dloadtest=true
+//   ./mvnw test -Dtest=LoadTests -Dloadtest=true -Dspring.threads.virtual.enabled=false
+//   ./mvnw test -Dtest=LoadTests -Dloadtest=true -Dtodolist.create.group-commit.enabled=true
+//   ./mvnw test -Dtest=LoadTests -Dloadtest=true -Dloadtest.admission=true -Dtodolist.admission.rate=1000000
+// Второй запуск - для сравнения с пулом платформенных потоков Tomcat, третий - с групповой записью taskCreate,
+// четвертый - с адаптивным лимитом одновременных запросов (отказы 503 считаются ошибками теста).
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                // все клиенты приходят с одного адреса; допуск запросов проверяется отдельным запуском
+                "todolist.admission.enabled=${loadtest.admission:false}"
+        }
+)
+public class LoadTests {
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 2000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("loadtest.requests", 20);
+
+    @LocalServerPort
+    int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
+    HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        for (int i = 0; i < 500; i++) {
+            send(HttpRequest.newBuilder(uri("/taskCreate?title=load%20" + i))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+        }
+    }
+
+    //Смешанная нагрузка: чтение страниц списка и создание задач
+    @Test
+    void concurrentClients() throws Exception {
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> clients = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientId = c;
+                clients.add(executor.submit(() -> {
+                    long[] own = new long[REQUESTS_PER_CLIENT];
+                    start.await();
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        HttpRequest.Builder request = r % 5 == 0
+                                ? HttpRequest.newBuilder(uri("/taskCreate?title=client%20" + clientId + "%20" + r))
+                                        .POST(HttpRequest.BodyPublishers.noBody())
+                                : HttpRequest.newBuilder(uri("/taskList?sortByPriority=true&limit=50")).GET();
+                        long begin = System.nanoTime();
+                        int status = send(request);
+                        own[r] = System.nanoTime() - begin;
+                        if (status >= 500) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    latencies.add(own);
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : clients) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("virtual threads: %s, clients: %d, requests: %d%n", virtualThreads, CLIENTS, all.length);
+            System.out.printf("throughput: %.0f req/s%n", all.length / (elapsed / 1e9));
+            System.out.printf("latency p50: %.1f ms, p95: %.1f ms, p99: %.1f ms, max: %.1f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), all[all.length - 1] / 1e6);
+            System.out.printf("failures: %d%n", failures.get());
+        }
+
+        assertEquals(0, failures.get());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/ToDoList" + path);
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofMinutes(2)).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
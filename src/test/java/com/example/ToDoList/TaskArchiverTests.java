@@ -0,0 +1,128 @@
+package com.example.ToDoList;
+
+import com.example.ToDoList.entity.ArchivedTask;
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskEventType;
+import com.example.ToDoList.models.TaskSummary;
+import com.example.ToDoList.services.TaskArchiver;
+import com.example.ToDoList.services.TaskWriteFence;
+import com.example.ToDoList.settings.TaskArchiveDb;
+import com.example.ToDoList.settings.ToDoListDb;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class TaskArchiverTests {
+
+    @Autowired
+    ToDoListDb toDoListDb;
+
+    @Autowired
+    TaskArchiveDb taskArchiveDb;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private final List<Object> events = new ArrayList<>();
+    private final Set<UUID> old = new HashSet<>();
+    private final Set<UUID> kept = new HashSet<>();
+    private TaskArchiver archiver;
+
+    // шесть старых завершенных задач и те, что должны остаться: свежая завершенная, старые Active и Overdue,
+    // задача, которую после завершения вернули в работу
+    @BeforeEach
+    void fillTable() {
+        // ANALYZE в IndexPlanTests коммитит транзакцию, и ее строки остаются в общей тестовой базе
+        entityManager.createNativeQuery("DELETE FROM todolist").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM todolist_archive").executeUpdate();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 6; i++) {
+            old.add(insert(i < 4 ? Status.Completed : Status.Late, now.minusDays(60 - i), now.minusDays(30)));
+        }
+        kept.add(insert(Status.Completed, now.minusDays(60), now.minusDays(1)));
+        kept.add(insert(Status.Active, now.minusDays(60), now.minusDays(30)));
+        kept.add(insert(Status.Overdue, now.minusDays(60), now.minusDays(30)));
+        kept.add(insert(Status.Active, now.minusDays(60), now.minusHours(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        archiver = new TaskArchiver(taskArchiveDb, events::add, new TaskWriteFence());
+        ReflectionTestUtils.setField(archiver, "age", Duration.ofDays(7));
+        ReflectionTestUtils.setField(archiver, "batchSize", 4);
+    }
+
+    //Переносятся только старые Completed и Late, пачками не больше batchSize
+    @Test
+    void archivesOnlyOldFinishedTasks() {
+        assertEquals(6, archiver.archive());
+
+        assertEquals(List.of(4, 2), events.stream().map(event -> ((TaskEvent) event).ids().size()).toList());
+        assertTrue(events.stream().allMatch(event -> ((TaskEvent) event).type() == TaskEventType.ARCHIVED));
+        assertEquals(old, events.stream().flatMap(event -> ((TaskEvent) event).ids().stream()).collect(Collectors.toSet()));
+
+        assertEquals(old, taskArchiveDb.findAll().stream().map(ArchivedTask::getId).collect(Collectors.toSet()));
+        assertEquals(kept, toDoListDb.findAll().stream().map(ToDoList::getId).collect(Collectors.toSet()));
+
+        // повторный запуск ничего не находит и событий не публикует
+        assertEquals(0, archiver.archive());
+        assertEquals(2, events.size());
+    }
+
+    //Архив листается курсором от новых к старым, фильтр по статусу тот же, что у /taskList
+    @Test
+    void archivePagesAndLookup() {
+        archiver.archive();
+
+        List<TaskSummary> first = taskArchiveDb.findArchivePage(null, null, null, 4);
+        List<TaskSummary> second = taskArchiveDb.findArchivePage(null, null,
+                TaskCursor.of(TaskCursor.Mode.CREATED_DESC, first.get(3)), 4);
+        assertEquals(4, first.size());
+        assertEquals(2, second.size());
+
+        List<TaskSummary> all = new ArrayList<>(first);
+        all.addAll(second);
+        assertEquals(old, all.stream().map(TaskSummary::id).collect(Collectors.toSet()));
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).createDate().isAfter(all.get(i).createDate()), all.toString());
+        }
+        assertEquals(2, taskArchiveDb.findArchivePage(Status.Late, null, null, 10).size());
+
+        UUID id = first.get(0).id();
+        ArchivedTask archived = taskArchiveDb.findById(id).orElseThrow();
+        assertEquals(first.get(0).status(), archived.getStatus());
+        assertNotNull(archived.getArchiveDate());
+        assertTrue(taskArchiveDb.findById(kept.iterator().next()).isEmpty());
+    }
+
+    private UUID insert(Status status, LocalDateTime created, LocalDateTime updated) {
+        UUID id = UUID.randomUUID();
+        entityManager.createNativeQuery("INSERT INTO todolist (id, title, description, status, priority, " +
+                        "create_date, update_date, version) VALUES (?1, ?2, '', ?3, 'Medium', ?4, ?5, 0)")
+                .setParameter(1, id)
+                .setParameter(2, "задача " + status)
+                .setParameter(3, status.name())
+                .setParameter(4, created)
+                .setParameter(5, updated)
+                .executeUpdate();
+        return id;
+    }
+}
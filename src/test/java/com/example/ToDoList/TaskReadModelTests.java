@@ -0,0 +1,137 @@
+package com.example.ToDoList;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.ChangedStatus;
+import com.example.ToDoList.models.OverdueTask;
+import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCursor;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskSummary;
+import com.example.ToDoList.services.TaskReadModel;
+import com.example.ToDoList.settings.ToDoListDb;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class TaskReadModelTests {
+
+    private static final int ROWS = 300;
+    private static final int LIMIT = 7;
+
+    @Autowired
+    ToDoListDb toDoListDb;
+
+    @Autowired
+    EntityManager entityManager;
+
+    // случайные id обоих знаков, совпадающие createDate и задачи без приоритета - все, на чем порядок
+    // модели может разойтись с ORDER BY в базе
+    @BeforeEach
+    void fillTable() {
+        // ANALYZE в IndexPlanTests коммитит транзакцию, и ее строки остаются в общей тестовой базе
+        entityManager.createNativeQuery("DELETE FROM todolist").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM todolist_archive").executeUpdate();
+        SplittableRandom random = new SplittableRandom(7);
+        Status[] statuses = Status.values();
+        Priority[] priorities = Priority.values();
+        LocalDateTime start = LocalDateTime.now().minusDays(10).truncatedTo(ChronoUnit.MINUTES);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime created = start.plusMinutes(random.nextInt(40));
+            entityManager.createNativeQuery("INSERT INTO todolist (id, title, description, status, priority, " +
+                            "create_date, update_date, version) VALUES (?1, ?2, '', ?3, ?4, ?5, ?5, 0)")
+                    .setParameter(1, new UUID(random.nextLong(), random.nextLong()))
+                    .setParameter(2, "задача " + i)
+                    .setParameter(3, statuses[random.nextInt(statuses.length)].name())
+                    .setParameter(4, i % 7 == 0 ? null : priorities[random.nextInt(priorities.length)].name())
+                    .setParameter(5, created)
+                    .executeUpdate();
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    //Каждая страница и каждый курсор модели совпадают с выборкой из базы во всех режимах сортировки
+    @Test
+    void pagesMatchDatabase() {
+        TaskReadModel model = new TaskReadModel(toDoListDb, true, Duration.ofMinutes(1));
+        model.start();
+
+        Status[] statuses = {null, Status.Active, Status.Late};
+        Priority[] priorities = {null, Priority.High};
+        for (TaskCursor.Mode mode : TaskCursor.Mode.values()) {
+            for (Status status : statuses) {
+                for (Priority priority : priorities) {
+                    String filter = mode + " " + status + " " + priority;
+                    int rows = 0;
+                    TaskCursor after = null;
+                    while (true) {
+                        List<TaskSummary> expected = toDoListDb.findTaskPage(status, priority, mode, after, LIMIT);
+                        List<TaskSummary> actual = model.page(status, priority, mode, after, LIMIT);
+                        assertEquals(expected, actual, filter + " после " + after);
+                        rows += actual.size();
+                        if (actual.size() < LIMIT) {
+                            break;
+                        }
+                        TaskCursor next = TaskCursor.of(mode, expected.get(LIMIT - 1));
+                        assertEquals(next.encode(), TaskCursor.of(mode, actual.get(LIMIT - 1)).encode(), filter);
+                        after = next;
+                    }
+                    assertEquals(model.version(status, priority).count(), rows, filter);
+                    assertEquals(toDoListDb.findTaskPage(status, priority, mode, null, ROWS).size(), rows, filter);
+                }
+            }
+        }
+    }
+
+    //Смена статуса, пришедшая до того, как первичный проход дочитал строку, не теряется
+    @Test
+    void statusChangesDuringBuildAreKept() {
+        TaskSummary active = toDoListDb.findTaskPage(Status.Active, null, TaskCursor.Mode.CREATED_ASC, null, 1).get(0);
+        TaskSummary late = toDoListDb.findTaskPage(Status.Late, null, TaskCursor.Mode.CREATED_ASC, null, 1).get(0);
+
+        TaskReadModel model = new TaskReadModel(toDoListDb, true, Duration.ofMinutes(1));
+        model.onTaskEvent(TaskEvent.overdue(new OverdueTask(active.id(), active.priority())));
+        model.onTaskEvent(TaskEvent.bulkStatusChanged(
+                List.of(new ChangedStatus(late.id(), Status.Active, LocalDateTime.now()))));
+        model.start();
+
+        List<TaskSummary> tasks = model.list(null, null, TaskCursor.Mode.CREATED_ASC);
+        assertEquals(Status.Overdue, status(tasks, active.id()));
+        assertEquals(Status.Active, status(tasks, late.id()));
+    }
+
+    //Правка, закоммиченная до удаления, но опубликованная после него, не возвращает задачу в модель
+    @Test
+    void lateEditAfterDeleteIsDropped() {
+        TaskReadModel model = new TaskReadModel(toDoListDb, true, Duration.ofMinutes(1));
+        model.start();
+        ToDoList task = toDoListDb.findAll().get(0);
+        task.setTitle("правка до удаления");
+        task.setUpdateDate(LocalDateTime.now());
+
+        model.onTaskEvent(TaskEvent.deleted(task));
+        model.onTaskEvent(TaskEvent.edited(task, task.getStatus(), task.getPriority()));
+        model.onTaskEvent(TaskEvent.statusChanged(task, task.getStatus()));
+
+        assertTrue(model.list(null, null, TaskCursor.Mode.CREATED_ASC).stream().noneMatch(row -> row.id().equals(task.getId())));
+        assertEquals(ROWS - 1, model.version(null, null).count());
+    }
+
+    private static Status status(List<TaskSummary> tasks, UUID id) {
+        return tasks.stream().filter(task -> task.id().equals(id)).findFirst().orElseThrow().status();
+    }
+}
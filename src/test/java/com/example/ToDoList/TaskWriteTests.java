@@ -0,0 +1,145 @@
+package com.example.ToDoList;
+
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.StatusChange;
+import com.example.ToDoList.settings.ToDoListDb;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class TaskWriteTests {
+
+    @Autowired
+    ToDoListDb toDoListDb;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private LocalDateTime now;
+    private UUID overdue;
+    private UUID onTime;
+    private UUID noDeadline;
+
+    // задача с прошедшим дедлайном, с будущим и без дедлайна
+    @BeforeEach
+    void fillTable() {
+        // ANALYZE в IndexPlanTests коммитит транзакцию, и ее строки остаются в общей тестовой базе
+        entityManager.createNativeQuery("DELETE FROM todolist").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM todolist_archive").executeUpdate();
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        overdue = insert(Status.Overdue, now.minusHours(1));
+        onTime = insert(Status.Active, now.plusDays(1));
+        noDeadline = insert(Status.Active, null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    //Статус считается в базе по дедлайну: Late/Completed при завершении, Overdue/Active при возврате в работу
+    @Test
+    void changeStatusFollowsDeadline() {
+        assertChanged(overdue, true, Status.Overdue, Status.Late);
+        assertChanged(onTime, true, Status.Active, Status.Completed);
+        assertChanged(noDeadline, true, Status.Active, Status.Completed);
+
+        assertChanged(overdue, false, Status.Late, Status.Overdue);
+        assertChanged(onTime, false, Status.Completed, Status.Active);
+    }
+
+    //Каждая смена статуса увеличивает версию, и возвращенная задача несет ту же версию, что и строка в базе
+    @Test
+    void changeStatusBumpsVersion() {
+        StatusChange first = toDoListDb.changeTaskStatus(onTime, 0L, true, now).orElseThrow();
+        StatusChange second = toDoListDb.changeTaskStatus(onTime, first.task().getVersion(), false, now).orElseThrow();
+
+        assertEquals(1, first.task().getVersion());
+        assertEquals(2, second.task().getVersion());
+        assertEquals(2, stored(onTime).getVersion());
+    }
+
+    //0 строк: устаревшая версия - задача есть (контроллер отвечает 409), неизвестный id - задачи нет (404)
+    @Test
+    void changeStatusMissVersusConflict() {
+        assertTrue(toDoListDb.changeTaskStatus(onTime, 5L, true, now).isEmpty());
+        assertTrue(toDoListDb.existsById(onTime));
+        assertEquals(Status.Active, stored(onTime).getStatus());
+        assertEquals(0, stored(onTime).getVersion());
+
+        UUID unknown = UUID.randomUUID();
+        assertTrue(toDoListDb.changeTaskStatus(unknown, 0L, true, now).isEmpty());
+        assertTrue(toDoListDb.changeTaskStatus(unknown, null, true, now).isEmpty());
+        assertFalse(toDoListDb.existsById(unknown));
+    }
+
+    //Удаление возвращает строку до удаления; с устаревшей версией строка остается
+    @Test
+    void deleteChecksVersion() {
+        assertTrue(toDoListDb.deleteTask(onTime, 1L).isEmpty());
+        assertTrue(toDoListDb.existsById(onTime));
+
+        ToDoList deleted = toDoListDb.deleteTask(onTime, 0L).orElseThrow();
+        assertEquals(onTime, deleted.getId());
+        assertEquals(Status.Active, deleted.getStatus());
+        assertFalse(toDoListDb.existsById(onTime));
+        assertTrue(toDoListDb.deleteTask(onTime, null).isEmpty());
+
+        assertEquals(noDeadline, toDoListDb.deleteTask(noDeadline, null).orElseThrow().getId());
+    }
+
+    //Правка по If-Match: сохранение задачи со старой версией отклоняется, строка не меняется
+    @Test
+    void editWithStaleVersionConflicts() {
+        ToDoList stale = stored(onTime);
+        toDoListDb.changeTaskStatus(onTime, null, true, now);
+        entityManager.clear();
+
+        stale.setTitle("правка поверх чужой");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            toDoListDb.save(stale);
+            entityManager.flush();
+        });
+        entityManager.clear();
+        assertEquals("задача", stored(onTime).getTitle());
+        assertEquals(1, stored(onTime).getVersion());
+    }
+
+    private void assertChanged(UUID id, boolean completed, Status previous, Status expected) {
+        long version = stored(id).getVersion();
+        StatusChange change = toDoListDb.changeTaskStatus(id, version, completed, now).orElseThrow();
+        assertEquals(previous, change.previousStatus(), id.toString());
+        assertEquals(expected, change.task().getStatus(), id.toString());
+        assertEquals(now, change.task().getUpdateDate());
+
+        ToDoList stored = stored(id);
+        assertEquals(expected, stored.getStatus(), id.toString());
+        assertEquals(version + 1, stored.getVersion());
+        assertEquals(stored.getVersion(), change.task().getVersion());
+    }
+
+    private ToDoList stored(UUID id) {
+        entityManager.clear();
+        return toDoListDb.findById(id).orElseThrow();
+    }
+
+    private UUID insert(Status status, LocalDateTime deadline) {
+        UUID id = UUID.randomUUID();
+        entityManager.createNativeQuery("INSERT INTO todolist (id, title, description, status, priority, deadline, " +
+                        "create_date, update_date, version) VALUES (?1, 'задача', '', ?2, 'Medium', ?3, ?4, ?4, 0)")
+                .setParameter(1, id)
+                .setParameter(2, status.name())
+                .setParameter(3, deadline)
+                .setParameter(4, now.minusDays(1))
+                .executeUpdate();
+        return id;
+    }
+}
@@ -1,12 +1,51 @@
 package com.example.ToDoList;
 
+import com.example.ToDoList.entity.ToDoList;
+import com.example.ToDoList.entity.UuidV7;
 import com.example.ToDoList.models.DeadlineAndPriorityCheck;
+import com.example.ToDoList.models.ExportFormat;
+import com.example.ToDoList.models.ETags;
 import com.example.ToDoList.models.Priority;
+import com.example.ToDoList.models.Status;
+import com.example.ToDoList.models.TaskCount;
+import com.example.ToDoList.models.TaskEvent;
+import com.example.ToDoList.models.TaskDetails;
+import com.example.ToDoList.models.TaskFields;
+import com.example.ToDoList.models.TaskListVersion;
+import com.example.ToDoList.models.TaskTokenizer;
+import com.example.ToDoList.models.TitleMacros;
+import com.example.ToDoList.services.TaskCounters;
+import com.example.ToDoList.services.TaskGroupCommit;
+import com.example.ToDoList.services.TaskImporter;
+import com.example.ToDoList.services.TaskWriteFence;
+import com.example.ToDoList.settings.AdaptiveConcurrencyLimit;
+import com.example.ToDoList.settings.ClientRateLimiter;
+import com.example.ToDoList.settings.TaskEventMulticaster;
+import com.example.ToDoList.settings.TaskMetrics;
+import com.example.ToDoList.settings.ToDoListDb;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -198,4 +237,368 @@ public class UnitTests {
         assertEquals(Priority.High, fromField);
     }
 
-}
\ No newline at end of file
+
+    //ПРОВЕДЕМ ТЕСТЫ ОДНОПРОХОДНОГО РАЗБОРА МАКРОСОВ (TitleMacros)
+    //Приоритет, дедлайн и название возвращаются одним объектом
+    @Test
+    void macrosAllAtOnce() {
+        TitleMacros macros = TitleMacros.parse("первая   задача !2    !before 18.07.2152");
+        assertEquals(Priority.High, macros.priority());
+        assertEquals(LocalDateTime.of(2152, 7, 18, 23, 59, 59), macros.deadline());
+        assertEquals("первая задача", macros.title());
+    }
+    @Test
+    void macrosInvalidDeadlineDoesNotBreakTitle() {
+        TitleMacros macros = TitleMacros.parse("ошибка !before 2025/05/10");
+        assertEquals("ошибка !before 2025/05/10", macros.title());
+        Exception ex = assertThrows(IllegalArgumentException.class, macros::deadline);
+        assertEquals("Неверный формат даты", ex.getMessage());
+    }
+
+    //Поведение совпадает с прежней цепочкой replaceAll: макросы удалялись по очереди (!1, затем !2 ...)
+    @Test
+    void cleanTitleSequentialRemoval() {
+        assertEquals("задача", res.cleanTitle("задача !!12"));
+        assertEquals("задача !1", res.cleanTitle("задача !!21"));
+        assertEquals("задача !1", res.cleanTitle("задача !!11"));
+    }
+    @Test
+    void cleanTitleKeepsSingleTab() {
+        assertEquals("первая\tзадача", res.cleanTitle("первая\tзадача"));
+        assertEquals("первая задача", res.cleanTitle("первая\t\tзадача"));
+    }
+    @Test
+    void deadlineSecondMacroIgnored() {
+        LocalDateTime expected = LocalDate.of(2152, 11, 11).atTime(23, 59, 59);
+        assertEquals(expected, res.extractDeadline("задача !before 11.11.2152!before 12.12.2152"));
+    }
+    @Test
+    void deadlineMacroWithoutDate() {
+        assertNull(res.extractDeadline("задача !before "));
+        assertNull(res.extractDeadline("задача !before"));
+    }
+
+    //Параметр fields
+    @Test
+    void fieldsKeepOrderAndDropDuplicates() {
+        assertEquals(List.of("title", "id", "status"), List.copyOf(TaskFields.parse("title, id,status,id")));
+    }
+    @Test
+    void fieldsAbsent() {
+        assertNull(TaskFields.parse(null));
+        assertNull(TaskFields.parse(" "));
+    }
+    @Test
+    void fieldsUnknown() {
+        Exception ex = assertThrows(IllegalArgumentException.class, () -> TaskFields.parse("id,password"));
+        assertEquals("Неизвестное поле: password", ex.getMessage());
+    }
+
+    //ETag
+    @Test
+    void etagChangesWithVersion() {
+        UUID id = UUID.randomUUID();
+        LocalDateTime updated = LocalDateTime.of(2025, 5, 10, 12, 0);
+        TaskDetails before = new TaskDetails(id, "задача", "", null, Status.Active, Priority.Medium, updated, updated, 3L);
+        TaskDetails after = new TaskDetails(id, "задача", "", null, Status.Active, Priority.Medium, updated, updated, 4L);
+        assertEquals(ETags.of(before), ETags.of(before));
+        assertNotEquals(ETags.of(before), ETags.of(after));
+        assertTrue(ETags.of(before).startsWith("\"") && ETags.of(before).endsWith("\""));
+    }
+    @Test
+    void ifMatchVersion() {
+        UUID id = UUID.randomUUID();
+        assertEquals(3L, ETags.version(ETags.of(id, 3L), id));
+        assertNull(ETags.version(null, id));
+        assertNull(ETags.version("*", id));
+        assertEquals(-1L, ETags.version(ETags.of(UUID.randomUUID(), 3L), id));
+        assertEquals(-1L, ETags.version("\"мусор\"", id));
+    }
+    @Test
+    void listEtagDependsOnCountAndQuery() {
+        LocalDateTime updated = LocalDateTime.of(2025, 5, 10, 12, 0);
+        String etag = ETags.of(new TaskListVersion(3L, updated), "status=Active&");
+        assertNotEquals(etag, ETags.of(new TaskListVersion(2L, updated), "status=Active&"));
+        assertNotEquals(etag, ETags.of(new TaskListVersion(3L, updated), "status=Late&"));
+        assertEquals(ETags.of(new TaskListVersion(0L, null), null), ETags.of(new TaskListVersion(0L, null), null));
+    }
+
+    //Токенизация для поиска
+    @Test
+    void tokenizeCyrillic() {
+        assertEquals(List.of("купить", "елку", "к", "31", "12"),
+                TaskTokenizer.tokenize("Купить ЁЛКУ, к 31.12!"));
+    }
+    @Test
+    void tokenizeEmpty() {
+        assertTrue(TaskTokenizer.tokenize(null).isEmpty());
+        assertTrue(TaskTokenizer.tokenize(" - !! ").isEmpty());
+    }
+
+    //UUID v7: версия 7, вариант RFC, каждое следующее значение больше предыдущего
+    @Test
+    void uuidV7Ordered() {
+        UUID previous = UuidV7.next();
+        assertEquals(7, previous.version());
+        assertEquals(2, previous.variant());
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7.next();
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+    }
+
+    //Частота запросов: burst подряд проходят, следующий ждет один интервал, другие клиенты не затронуты
+    @Test
+    void rateLimiterBurstThenWait() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100);
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a", now));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("b", now));
+        assertEquals(0, limiter.tryAcquire("a", now + TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    //Лимит растет, пока время вызовов базы стабильно, и уменьшается, когда оно выросло
+    @Test
+    void concurrencyLimitFollowsLatency() {
+        long window = TimeUnit.MILLISECONDS.toNanos(100);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 100, 2.0, 0.5, window);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        // окно закрывается первым замером после его окончания
+        long now = System.nanoTime();
+        for (int w = 1; w <= 3; w++) {
+            for (int i = 0; i < 20; i++) {
+                limit.onSample(TimeUnit.MILLISECONDS.toNanos(2), now + w * window);
+            }
+        }
+        assertTrue(limit.limit() > 4, "limit " + limit.limit());
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(20), now + 4 * window);
+        }
+        int before = limit.limit();
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(20), now + 5 * window);
+        assertEquals(before / 2, limit.limit());
+    }
+
+    //Групповая запись: одновременные создания уходят пачками не больше maxBatch
+    @Test
+    void groupCommitBatchesConcurrentCreates() throws Exception {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        TaskGroupCommit groupCommit = groupCommit(tasks -> batches.add(tasks.size()), 20, Duration.ofMillis(50));
+        groupCommit.start();
+
+        List<Thread> clients = new ArrayList<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            clients.add(client(groupCommit, "задача " + i, errors));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        groupCommit.shutdown();
+
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals(100, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.size() < 100, "batches " + batches);
+        assertTrue(batches.stream().allMatch(size -> size <= 20), "batches " + batches);
+    }
+
+    //Групповая запись: ошибка вставки получает каждый вызов пачки, а не только первый
+    @Test
+    void groupCommitFailsWholeBatch() throws Exception {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        TaskGroupCommit groupCommit = groupCommit(tasks -> {
+            batches.add(tasks.size());
+            throw new IllegalStateException("диск заполнен");
+        }, 3, Duration.ofSeconds(5));
+        groupCommit.start();
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        List<Thread> clients = List.of(client(groupCommit, "задача 1", errors),
+                client(groupCommit, "задача 2", errors), client(groupCommit, "задача 3", errors));
+        for (Thread client : clients) {
+            client.join();
+        }
+        groupCommit.shutdown();
+
+        assertEquals(List.of(3), batches);
+        assertEquals(3, errors.size());
+        assertTrue(errors.stream().allMatch(error -> "диск заполнен".equals(error.getMessage())), errors.toString());
+    }
+
+    //Групповая запись: shutdown дописывает уже принятые задачи, новые получают отказ
+    @Test
+    void groupCommitShutdownFlushesQueue() throws Exception {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskGroupCommit groupCommit = groupCommit(tasks -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            batches.add(tasks.size());
+        }, 1, Duration.ZERO);
+        groupCommit.start();
+
+        // первая пачка держит писателя, остальные задачи ждут в очереди
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        List<Thread> clients = new ArrayList<>();
+        clients.add(client(groupCommit, "задача 0", errors));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            clients.add(client(groupCommit, "задача " + i, errors));
+        }
+        for (Thread client : clients) {
+            awaitState(client, Thread.State.TIMED_WAITING);
+        }
+
+        Thread shutdown = new Thread(() -> {
+            try {
+                groupCommit.shutdown();
+            } catch (InterruptedException e) {
+                errors.add(e);
+            }
+        });
+        shutdown.start();
+        awaitState(shutdown, Thread.State.WAITING);
+        assertThrows(RejectedExecutionException.class, () -> groupCommit.create(task("поздняя задача")));
+
+        release.countDown();
+        shutdown.join();
+        for (Thread client : clients) {
+            client.join();
+        }
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertEquals(List.of(1, 1, 1, 1, 1, 1), batches);
+    }
+
+    //Сверка счетчиков ждет запись, которая уже закоммичена, но еще не опубликовала событие, и не считает ее дважды
+    @Test
+    void countersReconcileWaitsForUnpublishedWrite() throws Exception {
+        List<TaskCount> table = new CopyOnWriteArrayList<>();
+        ToDoListDb toDoListDb = (ToDoListDb) Proxy.newProxyInstance(ToDoListDb.class.getClassLoader(),
+                new Class<?>[]{ToDoListDb.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("countByStatusAndPriority")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return List.copyOf(table);
+                });
+        TaskWriteFence writeFence = new TaskWriteFence();
+        TaskCounters counters = new TaskCounters(toDoListDb, writeFence);
+
+        ToDoList task = task("задача");
+        task.setStatus(Status.Active);
+        task.setPriority(Priority.High);
+        Thread reconcile;
+        try (TaskWriteFence.Permit write = writeFence.write()) {
+            table.add(new TaskCount(Status.Active, Priority.High, 1L));
+            reconcile = new Thread(counters::tick);
+            reconcile.start();
+            awaitState(reconcile, Thread.State.WAITING);
+            assertFalse(counters.isReady());
+            counters.onTaskEvent(TaskEvent.created(task));
+        }
+        reconcile.join();
+
+        assertTrue(counters.isReady());
+        assertEquals(1, counters.stats().total());
+        assertEquals(1L, counters.stats().byStatusAndPriority().get(Status.Active).get(Priority.High));
+    }
+
+    //Ошибка одного слушателя TaskEvent не доходит до того, кто опубликовал событие, и не мешает остальным слушателям
+    @Test
+    void taskEventListenerFailureIsIsolated() {
+        TaskEventMulticaster multicaster = new TaskEventMulticaster();
+        List<TaskEvent> received = new ArrayList<>();
+        multicaster.addApplicationListener(ApplicationListener.forPayload((TaskEvent event) -> {
+            throw new IllegalStateException("слушатель упал");
+        }));
+        multicaster.addApplicationListener(ApplicationListener.forPayload((TaskEvent event) -> received.add(event)));
+
+        TaskEvent event = TaskEvent.bulkDeleted(List.of(UUID.randomUUID()));
+        assertDoesNotThrow(() -> multicaster.multicastEvent(new PayloadApplicationEvent<>(this, event)));
+        assertEquals(List.of(event), received);
+    }
+
+    //Импорт CSV: пустые строки, включая перевод строки в конце файла, не считаются отклоненными записями
+    @Test
+    void csvImportSkipsBlankLines() throws Exception {
+        List<String> titles = new CopyOnWriteArrayList<>();
+        ToDoListDb toDoListDb = (ToDoListDb) Proxy.newProxyInstance(ToDoListDb.class.getClassLoader(),
+                new Class<?>[]{ToDoListDb.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("insertBatch")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<ToDoList> tasks = (List<ToDoList>) args[0];
+                    tasks.forEach(task -> titles.add(task.getTitle()));
+                    return null;
+                });
+        ObjectMapper objectMapper = new ObjectMapper();
+        TaskImporter importer = new TaskImporter(toDoListDb, objectMapper, event -> {
+        }, new TaskWriteFence());
+        ReflectionTestUtils.setField(importer, "chunkSize", 500);
+
+        String csv = "title,priority\r\nпервая,High\r\n\r\nвторая,\r\n\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importTasks(ExportFormat.CSV, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+        importer.shutdown();
+
+        List<String> reports = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(List.of("первая", "вторая"), titles);
+        assertEquals("{\"type\":\"done\",\"inserted\":2,\"rejected\":0}", reports.get(reports.size() - 1), reports.toString());
+    }
+
+    private static TaskGroupCommit groupCommit(Consumer<List<ToDoList>> insertBatch, int maxBatch, Duration maxDelay) {
+        ToDoListDb toDoListDb = (ToDoListDb) Proxy.newProxyInstance(ToDoListDb.class.getClassLoader(),
+                new Class<?>[]{ToDoListDb.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("insertBatch")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<ToDoList> tasks = (List<ToDoList>) args[0];
+                    insertBatch.accept(tasks);
+                    return null;
+                });
+        return new TaskGroupCommit(toDoListDb, new TaskMetrics(new SimpleMeterRegistry()), true,
+                maxBatch, maxDelay, 1000, Duration.ofSeconds(10));
+    }
+
+    private static Thread client(TaskGroupCommit groupCommit, String title, List<Throwable> errors) {
+        Thread client = new Thread(() -> {
+            try {
+                groupCommit.create(task(title));
+            } catch (Throwable error) {
+                errors.add(error);
+            }
+        });
+        client.start();
+        return client;
+    }
+
+    private static ToDoList task(String title) {
+        ToDoList task = new ToDoList();
+        task.setId(UuidV7.next());
+        task.setTitle(title);
+        return task;
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state) {
+            assertTrue(System.nanoTime() < deadline, thread.getName() + " " + thread.getState());
+            Thread.sleep(1);
+        }
+    }
+}